@@ -16,6 +16,7 @@ import com.google.common.io.CharStreams;
 
 import ru.runa.gpd.Activator;
 import ru.runa.gpd.PluginLogger;
+import ru.runa.gpd.util.StudioMetrics;
 import ru.runa.gpd.wfe.WFEServerConnector;
 import ru.runa.wfe.bot.Bot;
 import ru.runa.wfe.bot.BotStation;
@@ -85,16 +86,21 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
 
     @Override
     public void connect() {
-        AuthenticationAPI authenticationAPI = new AuthenticationWebService(getUrl("Authentication")).getAuthenticationAPIPort();
-        if (LOGIN_MODE_LOGIN_PASSWORD.equals(Activator.getPrefString(P_WFE_CONNECTION_LOGIN_MODE))) {
-            String login = Activator.getPrefString(P_WFE_CONNECTION_LOGIN);
-            String password = getPassword();
-            if (password == null) {
-                return;
+        long start = StudioMetrics.start();
+        try {
+            AuthenticationAPI authenticationAPI = new AuthenticationWebService(getUrl("Authentication")).getAuthenticationAPIPort();
+            if (LOGIN_MODE_LOGIN_PASSWORD.equals(Activator.getPrefString(P_WFE_CONNECTION_LOGIN_MODE))) {
+                String login = Activator.getPrefString(P_WFE_CONNECTION_LOGIN);
+                String password = getPassword();
+                if (password == null) {
+                    return;
+                }
+                user = authenticationAPI.authenticateByLoginPassword(login, password);
+            } else {
+                user = authenticationAPI.authenticateByKerberos(getKerberosToken());
             }
-            user = authenticationAPI.authenticateByLoginPassword(login, password);
-        } else {
-            user = authenticationAPI.authenticateByKerberos(getKerberosToken());
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "connect", start);
         }
     }
 
@@ -126,24 +132,34 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
 
     @Override
     public Map<String, Boolean> getExecutors() {
-        List executors = getExecutorService().getExecutors(getUser(), null);
-        Map<String, Boolean> result = Maps.newHashMapWithExpectedSize(executors.size());
-        for (Executor executor : (List<WfExecutor>) executors) {
-            // group sign
-            result.put(executor.getName(), executor.getFullName() == null);
+        long start = StudioMetrics.start();
+        try {
+            List executors = getExecutorService().getExecutors(getUser(), null);
+            Map<String, Boolean> result = Maps.newHashMapWithExpectedSize(executors.size());
+            for (Executor executor : (List<WfExecutor>) executors) {
+                // group sign
+                result.put(executor.getName(), executor.getFullName() == null);
+            }
+            return result;
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "getExecutors", start);
         }
-        return result;
     }
 
     @Override
     public List<String> getRelationNames() {
-        RelationAPI api = new RelationWebService(getUrl("Relation")).getRelationAPIPort();
-        List<Relation> relations = api.getRelations(getUser(), null);
-        List<String> result = Lists.newArrayListWithExpectedSize(relations.size());
-        for (Relation relation : relations) {
-            result.add(relation.getName());
+        long start = StudioMetrics.start();
+        try {
+            RelationAPI api = new RelationWebService(getUrl("Relation")).getRelationAPIPort();
+            List<Relation> relations = api.getRelations(getUser(), null);
+            List<String> result = Lists.newArrayListWithExpectedSize(relations.size());
+            for (Relation relation : relations) {
+                result.add(relation.getName());
+            }
+            return result;
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "getRelationNames", start);
         }
-        return result;
     }
 
     private DefinitionAPI getDefinitionService() {
@@ -152,36 +168,47 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
 
     @Override
     public Map<WfDefinition, List<WfDefinition>> getProcessDefinitions(IProgressMonitor monitor) {
-        DefinitionAPI api = getDefinitionService();
-        List<WfDefinition> latestDefinitions = WfDefinitionAdapter.toDTOs(api.getProcessDefinitions(getUser(), null, false));
-        Map<WfDefinition, List<WfDefinition>> result = Maps.newHashMapWithExpectedSize(latestDefinitions.size());
-        monitor.worked(30);
-        double perDefinition = (double) 70 / latestDefinitions.size();
-        for (WfDefinition latestDefinition : latestDefinitions) {
-            List<WfDefinition> historyDefinitions = Lists.newArrayList();
-            if (isLoadProcessDefinitionsHistory()) {
-                try {
-                    historyDefinitions = WfDefinitionAdapter.toDTOs(api.getProcessDefinitionHistory(getUser(), latestDefinition.getName()));
-                    if (!historyDefinitions.isEmpty()) {
-                        historyDefinitions.remove(0);
+        long start = StudioMetrics.start();
+        try {
+            DefinitionAPI api = getDefinitionService();
+            List<WfDefinition> latestDefinitions = WfDefinitionAdapter.toDTOs(api.getProcessDefinitions(getUser(), null, false));
+            Map<WfDefinition, List<WfDefinition>> result = Maps.newHashMapWithExpectedSize(latestDefinitions.size());
+            monitor.worked(30);
+            double perDefinition = (double) 70 / latestDefinitions.size();
+            for (WfDefinition latestDefinition : latestDefinitions) {
+                List<WfDefinition> historyDefinitions = Lists.newArrayList();
+                if (isLoadProcessDefinitionsHistory()) {
+                    try {
+                        historyDefinitions = WfDefinitionAdapter.toDTOs(api.getProcessDefinitionHistory(getUser(), latestDefinition.getName()));
+                        if (!historyDefinitions.isEmpty()) {
+                            historyDefinitions.remove(0);
+                        }
+                    } catch (Exception e) {
+                        PluginLogger.logErrorWithoutDialog("definition '" + latestDefinition.getName() + "' sync", e);
                     }
-                } catch (Exception e) {
-                    PluginLogger.logErrorWithoutDialog("definition '" + latestDefinition.getName() + "' sync", e);
                 }
+                result.put(latestDefinition, historyDefinitions);
+                monitor.internalWorked(perDefinition);
             }
-            result.put(latestDefinition, historyDefinitions);
-            monitor.internalWorked(perDefinition);
+            return result;
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "getProcessDefinitions", start);
         }
-        return result;
     }
 
     @Override
     public byte[] getProcessDefinitionArchive(WfDefinition definition) {
-        return getDefinitionService().getProcessDefinitionFile(getUser(), definition.getId(), "par");
+        long start = StudioMetrics.start();
+        try {
+            return getDefinitionService().getProcessDefinitionFile(getUser(), definition.getId(), "par");
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "getProcessDefinitionArchive", start);
+        }
     }
 
     @Override
     public WfDefinition deployProcessDefinitionArchive(byte[] par) {
+        long start = StudioMetrics.start();
         try {
             return WfDefinitionAdapter.toDTO(getDefinitionService().deployProcessDefinition(getUser(), par, Lists.newArrayList("GPD")));
         } catch (Exception e) {
@@ -189,11 +216,14 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
                 throw new DefinitionAlreadyExistException("");
             }
             throw Throwables.propagate(e);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "deployProcessDefinitionArchive", start);
         }
     }
 
     @Override
     public WfDefinition updateProcessDefinitionArchive(Long definitionId, byte[] par) {
+        long start = StudioMetrics.start();
         try {
             return WfDefinitionAdapter.toDTO(getDefinitionService().updateProcessDefinition(getUser(), definitionId, par));
         } catch (Exception e) {
@@ -208,11 +238,14 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
                 throw new DefinitionNameMismatchException(e.getMessage(), "", "");
             }
             throw Throwables.propagate(e);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "updateProcessDefinitionArchive", start);
         }
     }
 
     @Override
     public WfDefinition redeployProcessDefinitionArchive(Long definitionId, byte[] par, List<String> types) {
+        long start = StudioMetrics.start();
         try {
             return WfDefinitionAdapter.toDTO(getDefinitionService().redeployProcessDefinition(getUser(), definitionId, par, types));
         } catch (Exception e) {
@@ -227,6 +260,8 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
                 throw new DefinitionNameMismatchException(e.getMessage(), "", "");
             }
             throw Throwables.propagate(e);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "redeployProcessDefinitionArchive", start);
         }
     }
 
@@ -236,14 +271,19 @@ public abstract class AbstractWebServicesConnector extends WFEServerConnector {
 
     @Override
     public Map<Bot, List<BotTask>> getBots() {
-        Map<Bot, List<BotTask>> result = Maps.newHashMap();
-        List<BotStation> botStations = BotStationAdapter.toDTOs(getBotService().getBotStations());
-        for (BotStation botStation : botStations) {
-            for (Bot bot : BotAdapter.toDTOs(getBotService().getBots(getUser(), botStation.getId()))) {
-                result.put(bot, BotTaskAdapter.toDTOs(getBotService().getBotTasks(getUser(), bot.getId())));
+        long start = StudioMetrics.start();
+        try {
+            Map<Bot, List<BotTask>> result = Maps.newHashMap();
+            List<BotStation> botStations = BotStationAdapter.toDTOs(getBotService().getBotStations());
+            for (BotStation botStation : botStations) {
+                for (Bot bot : BotAdapter.toDTOs(getBotService().getBots(getUser(), botStation.getId()))) {
+                    result.put(bot, BotTaskAdapter.toDTOs(getBotService().getBotTasks(getUser(), bot.getId())));
+                }
             }
+            return result;
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SERVER_CALL + "getBots", start);
         }
-        return result;
     }
 
     @Override
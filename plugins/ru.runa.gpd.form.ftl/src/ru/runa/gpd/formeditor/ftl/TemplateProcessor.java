@@ -15,6 +15,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import ru.runa.gpd.util.StudioMetrics;
 
 public class TemplateProcessor {
     private static final Configuration configuration = new Configuration(Configuration.VERSION_2_3_23);
@@ -33,6 +34,7 @@ public class TemplateProcessor {
         if (Strings.isNullOrEmpty(templateData)) {
             return templateData;
         }
+        long start = StudioMetrics.start();
         try {
             Template template = new Template("template", new StringReader(templateData), configuration);
             StringWriter out = new StringWriter();
@@ -41,6 +43,8 @@ public class TemplateProcessor {
             return out.toString();
         } catch (Exception e) {
             throw Throwables.propagate(e);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.TEMPLATE_PROCESS, start);
         }
     }
 
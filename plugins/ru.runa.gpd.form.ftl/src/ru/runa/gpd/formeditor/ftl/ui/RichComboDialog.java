@@ -1,7 +1,6 @@
 package ru.runa.gpd.formeditor.ftl.ui;
 
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
@@ -28,15 +27,13 @@ import ru.runa.gpd.ui.custom.SyncUIHelper;
 import ru.runa.gpd.ui.dialog.ChooseItemDialog;
 import ru.runa.gpd.ui.dialog.ChooseVariableNameDialog;
 import ru.runa.gpd.wfe.DataImporter;
+import ru.runa.gpd.wfe.ExecutorsImporter;
 import ru.runa.gpd.wfe.WFEServerExecutorsImporter;
 import ru.runa.gpd.wfe.WFEServerRelationsImporter;
 import ru.runa.wfe.user.Actor;
 import ru.runa.wfe.user.Executor;
 import ru.runa.wfe.user.Group;
 
-import com.google.common.base.Objects;
-import com.google.common.collect.Lists;
-
 public class RichComboDialog extends Dialog {
     private final String variableTypeFilter;
     private final List<String> variableNames;
@@ -69,19 +66,11 @@ public class RichComboDialog extends Dialog {
                 @Override
                 protected void onLinkActivated(HyperlinkEvent e) throws Exception {
                     List<String> items;
-                    Object data = dataImporter.loadCachedData();
-                    if (data instanceof List) {
-                        // relations
-                        items = (List<String>) data;
+                    if (dataImporter instanceof ExecutorsImporter) {
+                        items = ((ExecutorsImporter) dataImporter).getExecutorNames(syncType != SyncType.GROUP, syncType != SyncType.ACTOR);
                     } else {
-                        items = Lists.newArrayList();
-                        Map<String, Boolean> executors = (Map<String, Boolean>) data;
-                        Boolean isGroup = syncType == SyncType.GROUP ? Boolean.TRUE : (syncType == SyncType.ACTOR ? Boolean.FALSE : null);
-                        for (Map.Entry<String, Boolean> entry : executors.entrySet()) {
-                            if (isGroup == null || (isGroup != null && Objects.equal(isGroup, entry.getValue()))) {
-                                items.add(entry.getKey());
-                            }
-                        }
+                        // relations
+                        items = (List<String>) dataImporter.loadCachedData();
                     }
                     ChooseItemDialog<String> dialog = new ChooseItemDialog<String>(LocalizationRegistry.getLabel(variableTypeFilter), items);
                     String result = dialog.openDialog();
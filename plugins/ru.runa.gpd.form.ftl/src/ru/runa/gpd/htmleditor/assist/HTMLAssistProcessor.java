@@ -8,7 +8,6 @@ import java.util.Stack;
 
 import jp.aonir.fuzzyxml.FuzzyXMLDocument;
 import jp.aonir.fuzzyxml.FuzzyXMLElement;
-import jp.aonir.fuzzyxml.FuzzyXMLParser;
 
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.CompletionProposal;
@@ -22,6 +21,7 @@ import org.eclipse.ui.IFileEditorInput;
 
 import ru.runa.gpd.htmleditor.HTMLPlugin;
 import ru.runa.gpd.htmleditor.HTMLUtil;
+import ru.runa.gpd.htmleditor.editors.HTMLDocumentModel;
 import ru.runa.gpd.htmleditor.template.HTMLTemplateAssistProcessor;
 
 /**
@@ -161,7 +161,7 @@ public class HTMLAssistProcessor extends HTMLTemplateAssistProcessor { /*
         String attr = dim[3];
 
         this.offset = documentOffset;
-        this.doc = new FuzzyXMLParser().parse(viewer.getDocument().get());
+        this.doc = HTMLDocumentModel.parse(viewer.getDocument(), false);
 
         List list = new ArrayList();
         List tagList = getTagList();
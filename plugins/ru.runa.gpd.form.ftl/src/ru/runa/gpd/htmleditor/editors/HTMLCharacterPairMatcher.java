@@ -1,11 +1,7 @@
 package ru.runa.gpd.htmleditor.editors;
 
-import jp.aonir.fuzzyxml.internal.FuzzyXMLUtil;
-
 import org.eclipse.jface.text.IDocument;
 
-import ru.runa.gpd.htmleditor.HTMLUtil;
-
 /**
  * @author Naoki Takezoe
  */
@@ -20,11 +16,7 @@ public class HTMLCharacterPairMatcher extends AbstractCharacterPairMatcher {
 	}
 	
 	protected String getSource(IDocument doc){
-		String text = doc.get();
-		text = FuzzyXMLUtil.escapeString(text);
-		text = HTMLUtil.comment2space(text, true);
-		text = HTMLUtil.scriptlet2space(text, true);
-		return text;
+		return HTMLDocumentModel.getEscapedSource(doc);
 	}
 
 }
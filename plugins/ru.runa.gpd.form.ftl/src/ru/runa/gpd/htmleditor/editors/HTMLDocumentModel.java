@@ -0,0 +1,102 @@
+package ru.runa.gpd.htmleditor.editors;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import jp.aonir.fuzzyxml.FuzzyXMLDocument;
+import jp.aonir.fuzzyxml.FuzzyXMLParser;
+import jp.aonir.fuzzyxml.internal.FuzzyXMLUtil;
+
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+
+import ru.runa.gpd.htmleditor.HTMLUtil;
+
+/**
+ * Parse results of one text document shared by the outline, content assist, hyperlinks and pair matcher. Each document change increments
+ * the version, the document is parsed again lazily on the first request for a newer version.
+ * <p>
+ * Returned {@link FuzzyXMLDocument} is a snapshot shared between consumers and must not be modified.
+ */
+public class HTMLDocumentModel implements IDocumentListener {
+    // model does not reference its document, so entries are released with documents
+    private static final Map<IDocument, HTMLDocumentModel> models = new WeakHashMap<IDocument, HTMLDocumentModel>();
+
+    private long version;
+    private final Snapshot<FuzzyXMLDocument> xmlDocument = new Snapshot<FuzzyXMLDocument>();
+    private final Snapshot<FuzzyXMLDocument> htmlDocument = new Snapshot<FuzzyXMLDocument>();
+    private final Snapshot<String> escapedSource = new Snapshot<String>();
+
+    private HTMLDocumentModel() {
+    }
+
+    private static synchronized HTMLDocumentModel getModel(IDocument document) {
+        HTMLDocumentModel model = models.get(document);
+        if (model == null) {
+            model = new HTMLDocumentModel();
+            document.addDocumentListener(model);
+            models.put(document, model);
+        }
+        return model;
+    }
+
+    /**
+     * @param html
+     *            parse in HTML mode, see {@link FuzzyXMLParser#FuzzyXMLParser(boolean)}
+     * @return parsed document of the current version
+     */
+    public static FuzzyXMLDocument parse(IDocument document, boolean html) {
+        HTMLDocumentModel model = getModel(document);
+        synchronized (model) {
+            Snapshot<FuzzyXMLDocument> snapshot = html ? model.htmlDocument : model.xmlDocument;
+            if (!snapshot.isValid(model.version)) {
+                snapshot.set(new FuzzyXMLParser(html).parse(document.get()), model.version);
+            }
+            return snapshot.value;
+        }
+    }
+
+    /**
+     * @return document source with escaped strings, comments and scriptlets replaced by spaces
+     */
+    public static String getEscapedSource(IDocument document) {
+        HTMLDocumentModel model = getModel(document);
+        synchronized (model) {
+            if (!model.escapedSource.isValid(model.version)) {
+                String text = FuzzyXMLUtil.escapeString(document.get());
+                text = HTMLUtil.comment2space(text, true);
+                text = HTMLUtil.scriptlet2space(text, true);
+                model.escapedSource.set(text, model.version);
+            }
+            return model.escapedSource.value;
+        }
+    }
+
+    @Override
+    public void documentAboutToBeChanged(DocumentEvent event) {
+    }
+
+    @Override
+    public synchronized void documentChanged(DocumentEvent event) {
+        version++;
+        // release stale results early, large forms produce large trees
+        xmlDocument.set(null, -1);
+        htmlDocument.set(null, -1);
+        escapedSource.set(null, -1);
+    }
+
+    private static class Snapshot<T> {
+        private T value;
+        private long version = -1;
+
+        private boolean isValid(long currentVersion) {
+            return value != null && version == currentVersion;
+        }
+
+        private void set(T value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
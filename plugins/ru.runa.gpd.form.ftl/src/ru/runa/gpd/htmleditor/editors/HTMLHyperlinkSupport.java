@@ -3,7 +3,6 @@ package ru.runa.gpd.htmleditor.editors;
 import jp.aonir.fuzzyxml.FuzzyXMLAttribute;
 import jp.aonir.fuzzyxml.FuzzyXMLDocument;
 import jp.aonir.fuzzyxml.FuzzyXMLElement;
-import jp.aonir.fuzzyxml.FuzzyXMLParser;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -322,7 +321,7 @@ public class HTMLHyperlinkSupport implements KeyListener,MouseListener,MouseMove
 	}
 	
 	private IRegion selectWord(IDocument doc,int offset){
-		FuzzyXMLDocument document = new FuzzyXMLParser().parse(editor.getHTMLSource());
+		FuzzyXMLDocument document = editor.getParsedHTMLSource(false);
 		FuzzyXMLElement element = document.getElementByOffset(offset);
 		if(element==null){
 			return null;
@@ -8,7 +8,6 @@ import jp.aonir.fuzzyxml.FuzzyXMLDocType;
 import jp.aonir.fuzzyxml.FuzzyXMLDocument;
 import jp.aonir.fuzzyxml.FuzzyXMLElement;
 import jp.aonir.fuzzyxml.FuzzyXMLNode;
-import jp.aonir.fuzzyxml.FuzzyXMLParser;
 
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -64,7 +63,7 @@ public class HTMLOutlinePage extends ContentOutlinePage implements IHTMLOutlineP
 	}
 	
 	public void update(){
-		this.doc = new FuzzyXMLParser(isHTML()).parse(editor.getHTMLSource());
+		this.doc = editor.getParsedHTMLSource(isHTML());
 		TreeViewer viewer = getTreeViewer();
 		if(viewer!=null){
 			viewer.refresh();
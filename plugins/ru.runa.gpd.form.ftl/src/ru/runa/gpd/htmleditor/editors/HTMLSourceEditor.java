@@ -6,6 +6,8 @@ import java.util.Stack;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import jp.aonir.fuzzyxml.FuzzyXMLDocument;
+
 import org.apache.commons.jrcs.diff.AddDelta;
 import org.apache.commons.jrcs.diff.ChangeDelta;
 import org.apache.commons.jrcs.diff.DeleteDelta;
@@ -288,6 +290,17 @@ public class HTMLSourceEditor extends TextEditor {
         return getDocumentProvider().getDocument(getEditorInput()).get();
     }
 
+    /**
+     * Returns parsed HTML source. The result is shared by all consumers of the document until the next modification.
+     * 
+     * @param html
+     *            parse in HTML mode
+     * @return FuzzyXML document
+     */
+    public FuzzyXMLDocument getParsedHTMLSource(boolean html) {
+        return HTMLDocumentModel.parse(getDocumentProvider().getDocument(getEditorInput()), html);
+    }
+
     /**
      * This method is called in the following timing:
      * <ul>
@@ -128,6 +128,8 @@ public class JavaScriptAssistProcessor extends HTMLTemplateAssistProcessor { /*
 	}
 	
 	private List functions = new ArrayList();
+	// reused between completion requests, re-parsed only when the source is changed
+	private JavaScriptModel model;
 	
 	protected String getSource(ITextViewer viewer){
 		return viewer.getDocument().get();
@@ -162,7 +164,11 @@ public class JavaScriptAssistProcessor extends HTMLTemplateAssistProcessor { /*
 				}
 			}
 			
-			JavaScriptModel model = new JavaScriptModel(source);
+			if(model == null){
+				model = new JavaScriptModel(source);
+			} else {
+				model.update(source);
+			}
 			JavaScriptContext context = model.getContextFromOffset(offset);
 			if(context!=null){
 				JavaScriptElement[] children = context.getVisibleElements();
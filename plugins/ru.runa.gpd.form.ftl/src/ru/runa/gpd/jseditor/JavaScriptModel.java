@@ -11,6 +11,12 @@ import java.util.regex.Pattern;
  */
 public class JavaScriptModel implements JavaScriptContext {
 	
+	private static final Pattern VARIABLE_PATTERN = Pattern.compile("var[\\s\r\n]+(.+?)[\\s\r\n]*?[;=]");
+	// name and arguments can not contain brackets, braces or semicolon, so failed match attempt stops at the next token instead of the source end
+	private static final Pattern FUNCTION_PATTERN = Pattern.compile("function\\s+([^\\s(){};]+)\\s*\\(([^(){};]*)\\)\\s*\\{");
+	private static final Pattern ARGUMENTS_SEPARATOR_PATTERN = Pattern.compile("[\\s\r\n]*,[\\s\r\n]*");
+	
+	private String source;
 	private List children = new ArrayList();
 	private List comments = new ArrayList();
 	private JavaScriptContext context;
@@ -50,10 +56,15 @@ public class JavaScriptModel implements JavaScriptContext {
 	
 	/**
 	 * Updates model structure by the specified source code.
+	 * Model is kept as is if the source is not changed since the last update.
 	 * 
 	 * @param source JavaScript
 	 */
 	public void update(String source){
+		if(source.equals(this.source)){
+			return;
+		}
+		this.source = source;
 		this.children.clear();
 		this.comments.clear();
 		this.endOffset = source.length();
@@ -136,29 +147,30 @@ public class JavaScriptModel implements JavaScriptContext {
 		}
 	}
 	
+	// patterns are matched in place from the position, source tail is neither copied nor scanned
 	private static int parseVariable(String source, int position, JavaScriptContext context){
-		Pattern pattern = Pattern.compile("var[\\s\r\n]+(.+?)[\\s\r\n]*?[;=]");
-		if(source.indexOf("var", position) == position){
-			Matcher matcher = pattern.matcher(source.substring(position));
-			if(matcher.find() && matcher.start()==0){
+		if(source.startsWith("var", position)){
+			Matcher matcher = VARIABLE_PATTERN.matcher(source);
+			matcher.region(position, source.length());
+			if(matcher.lookingAt()){
 				JavaScriptVariable var = new JavaScriptVariable(matcher.group(1), position);
 				context.add(var);
-				return matcher.end();
+				return matcher.end() - position;
 			}
 		}
 		return 0;
 	}
 	
 	private static Object[] parseFunction(String source, int position, JavaScriptContext context){
-		Pattern pattern = Pattern.compile("function[\\s\r\n]+?(.+?)[\\s\r\n]*?\\((.*?)\\)[\\s\r\n]*?\\{", Pattern.DOTALL);
-		if(source.indexOf("function", position) == position){
-			Matcher matcher = pattern.matcher(source.substring(position));
-			if(matcher.find() && matcher.start()==0){
-				String args = matcher.group(2).replaceAll("[\\s\r\n]*,[\\s\r\n]*",", ").trim();
+		if(source.startsWith("function", position)){
+			Matcher matcher = FUNCTION_PATTERN.matcher(source);
+			matcher.region(position, source.length());
+			if(matcher.lookingAt()){
+				String args = ARGUMENTS_SEPARATOR_PATTERN.matcher(matcher.group(2)).replaceAll(", ").trim();
 				JavaScriptFunction func = new JavaScriptFunction(matcher.group(1), args, position);
 				func.setParent(context);
 				context.add(func);
-				return new Object[]{new Integer(matcher.end()), func};
+				return new Object[]{new Integer(matcher.end() - position), func};
 			}
 		}
 		return null;
@@ -3,11 +3,13 @@ package ru.runa.gpd.quick.formeditor;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -118,6 +120,8 @@ public class QuickFormEditor extends EditorPart implements ISelectionListener, I
     private Button changeButton;
     private Button deleteButton;
     private Button convertButton;
+    private List<Object> previewRenderKey;
+    private String previewForm;
 
     @Override
     public void init(IEditorSite site, IEditorInput input) throws PartInitException {
@@ -323,51 +327,7 @@ public class QuickFormEditor extends EditorPart implements ISelectionListener, I
         previewButton = SWTUtils.createButtonFillHorizontal(buttonsBar, Messages.getString("editor.button.preview"), new LoggingSelectionAdapter() {
             @Override
             protected void onSelection(SelectionEvent e) throws Exception {
-                String filename = formNode.getTemplateFileName();
-                Bundle bundle = QuickTemplateRegister.getBundle(filename);
-                String quickTemplate = QuickFormXMLUtil.getTemplateFromRegister(bundle, filename);
-                Map<String, Object> variables = new HashMap<String, Object>();
-                variables.put("variables", quickForm.getVariables());
-                variables.put("task", "");
-                for (QuickFormGpdProperty quickFormGpdProperty : quickForm.getProperties()) {
-                    variables.put(quickFormGpdProperty.getName(), quickFormGpdProperty.getValue() == null ? "" : quickFormGpdProperty.getValue());
-                }
-                FormHashModelGpdWrap quickModel = new FormHashModelGpdWrap(null, new MapVariableProvider(variables), null);
-                String ftlTemplate = TemplateProcessor.process(formFile.getFullPath().toString(), quickTemplate, quickModel);
-                MapVariableProvider ftlVariableProvider = new MapVariableProvider(new HashMap<String, Object>());
-                for (QuickFormGpdVariable quickFormGpdVariable : quickForm.getVariables()) {
-                    Variable variable = VariableUtils.getVariableByName(processDefinition, quickFormGpdVariable.getName());
-                    if (variable == null && formNode instanceof MultiTaskState) {
-                        for (VariableMapping variableMapping : ((MultiTaskState) formNode).getVariableMappings()) {
-                            if (Objects.equal(variableMapping.getMappedName(), quickFormGpdVariable.getName())) {
-                                if (variableMapping.isMultiinstanceLink()) {
-                                    Variable listVariable = VariableUtils.getVariableByName(processDefinition, variableMapping.getName());
-                                    String format = listVariable.getFormatComponentClassNames()[0];
-                                    VariableUserType userType = processDefinition.getVariableUserType(format);
-                                    variable = new Variable(quickFormGpdVariable.getName(), quickFormGpdVariable.getName(), format, userType);
-                                } else {
-                                    variable = VariableUtils.getVariableByName(processDefinition, variableMapping.getName());
-                                }
-                                break;
-                            }
-                        }
-                        if (variable == null) {
-                            // prevent NPE
-                            continue;
-                        }
-                    }
-                    String defaultValue = PresentationVariableUtils.getPresentationValue(variable.getFormat());
-                    Object value = null;
-                    if (defaultValue != null) {
-                        value = TypeConversionUtil.convertTo(ClassLoaderUtil.loadClass(variable.getJavaClassName()), defaultValue);
-                    }
-                    VariableDefinition variableDefinition = new VariableDefinition(quickFormGpdVariable.getName(), null);
-                    variableDefinition.setFormat(variable.getFormat());
-                    WfVariable wfVariable = new WfVariable(variableDefinition, value);
-                    ftlVariableProvider.add(wfVariable);
-                }
-                FormHashModelGpdWrap ftlModel = new FormHashModelGpdWrap(null, ftlVariableProvider, null);
-                String form = TemplateProcessor.process(formFile.getFullPath().toString() + "_2", ftlTemplate, ftlModel);
+                String form = renderPreviewForm();
                 IFile formCssFile = definitionFolder.getFile(ParContentProvider.FORM_CSS_FILE_NAME);
                 String styles = formCssFile.exists() ? IOUtils.readStream(formCssFile.getContents()) : null;
                 PreviewFormWizard wizard = new PreviewFormWizard(form, styles);
@@ -559,6 +519,69 @@ public class QuickFormEditor extends EditorPart implements ISelectionListener, I
         composite.layout(true, true);
     }
 
+    /**
+     * Form is rendered again only when template, rows, properties or variable formats differ from the previous preview.
+     */
+    private String renderPreviewForm() throws Exception {
+        String filename = formNode.getTemplateFileName();
+        Bundle bundle = QuickTemplateRegister.getBundle(filename);
+        String quickTemplate = QuickFormXMLUtil.getTemplateFromRegister(bundle, filename);
+        // rows are mutable and compared by identity, so key holds copies of their values
+        List<Object> renderKey = Lists.newArrayList(filename, quickTemplate);
+        Map<String, Object> variables = new HashMap<String, Object>();
+        variables.put("variables", quickForm.getVariables());
+        variables.put("task", "");
+        for (QuickFormGpdProperty quickFormGpdProperty : quickForm.getProperties()) {
+            variables.put(quickFormGpdProperty.getName(), quickFormGpdProperty.getValue() == null ? "" : quickFormGpdProperty.getValue());
+            renderKey.add(Arrays.asList(quickFormGpdProperty.getName(), quickFormGpdProperty.getValue()));
+        }
+        MapVariableProvider ftlVariableProvider = new MapVariableProvider(new HashMap<String, Object>());
+        for (QuickFormGpdVariable quickFormGpdVariable : quickForm.getVariables()) {
+            String[] params = quickFormGpdVariable.getParams();
+            renderKey.add(Arrays.asList(quickFormGpdVariable.getName(), quickFormGpdVariable.getTagName(), quickFormGpdVariable.getScriptingName(),
+                    quickFormGpdVariable.getDescription(), params == null ? null : Lists.newArrayList(params)));
+            Variable variable = VariableUtils.getVariableByName(processDefinition, quickFormGpdVariable.getName());
+            if (variable == null && formNode instanceof MultiTaskState) {
+                for (VariableMapping variableMapping : ((MultiTaskState) formNode).getVariableMappings()) {
+                    if (Objects.equal(variableMapping.getMappedName(), quickFormGpdVariable.getName())) {
+                        if (variableMapping.isMultiinstanceLink()) {
+                            Variable listVariable = VariableUtils.getVariableByName(processDefinition, variableMapping.getName());
+                            String format = listVariable.getFormatComponentClassNames()[0];
+                            VariableUserType userType = processDefinition.getVariableUserType(format);
+                            variable = new Variable(quickFormGpdVariable.getName(), quickFormGpdVariable.getName(), format, userType);
+                        } else {
+                            variable = VariableUtils.getVariableByName(processDefinition, variableMapping.getName());
+                        }
+                        break;
+                    }
+                }
+                if (variable == null) {
+                    // prevent NPE
+                    continue;
+                }
+            }
+            String defaultValue = PresentationVariableUtils.getPresentationValue(variable.getFormat());
+            Object value = null;
+            if (defaultValue != null) {
+                value = TypeConversionUtil.convertTo(ClassLoaderUtil.loadClass(variable.getJavaClassName()), defaultValue);
+            }
+            renderKey.add(variable.getFormat());
+            VariableDefinition variableDefinition = new VariableDefinition(quickFormGpdVariable.getName(), null);
+            variableDefinition.setFormat(variable.getFormat());
+            WfVariable wfVariable = new WfVariable(variableDefinition, value);
+            ftlVariableProvider.add(wfVariable);
+        }
+        if (renderKey.equals(previewRenderKey)) {
+            return previewForm;
+        }
+        FormHashModelGpdWrap quickModel = new FormHashModelGpdWrap(null, new MapVariableProvider(variables), null);
+        String ftlTemplate = TemplateProcessor.process(formFile.getFullPath().toString(), quickTemplate, quickModel);
+        FormHashModelGpdWrap ftlModel = new FormHashModelGpdWrap(null, ftlVariableProvider, null);
+        previewForm = TemplateProcessor.process(formFile.getFullPath().toString() + "_2", ftlTemplate, ftlModel);
+        previewRenderKey = renderKey;
+        return previewForm;
+    }
+
     private void setDefaultSelection() {
         if (templateCombo.getItemCount() != 0) {
             int selectionIndex = templateCombo.getSelectionIndex();
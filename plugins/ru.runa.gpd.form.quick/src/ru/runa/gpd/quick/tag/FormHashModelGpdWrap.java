@@ -1,5 +1,9 @@
 package ru.runa.gpd.quick.tag;
 
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
 import ru.runa.wfe.commons.web.WebHelper;
 import ru.runa.wfe.user.User;
 import ru.runa.wfe.var.IVariableProvider;
@@ -15,6 +19,8 @@ public class FormHashModelGpdWrap extends SimpleHash {
     private final User user;
     private final IVariableProvider variableProvider;
     private final WebHelper webHelper;
+    // model is used by one render, so each tag is created once instead of once per row
+    private final Map<String, FreemarkerTagGpdWrap> tags = Maps.newHashMap();
 
     public FormHashModelGpdWrap(User user, IVariableProvider variableProvider, WebHelper webHelper) {
     	super(ObjectWrapper.BEANS_WRAPPER);
@@ -26,10 +32,15 @@ public class FormHashModelGpdWrap extends SimpleHash {
     @Override
     public TemplateModel get(String key) throws TemplateModelException {
         try {
-            FreemarkerConfigurationGpdWrap configuration = FreemarkerConfigurationGpdWrap.getInstance();
-            FreemarkerTagGpdWrap tag = configuration.getTag(key);
+            FreemarkerTagGpdWrap tag = tags.get(key);
+            if (tag == null) {
+                tag = FreemarkerConfigurationGpdWrap.getInstance().getTag(key);
+                if (tag != null) {
+                    tag.init(user, webHelper, variableProvider);
+                    tags.put(key, tag);
+                }
+            }
             if (tag != null) {
-                tag.init(user, webHelper, variableProvider);
                 return tag;
             }
         } catch (Exception e) {
@@ -1,6 +1,7 @@
 package ru.runa.gpd.quick.tag;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,6 +15,9 @@ import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.Bundle;
 import ru.runa.wfe.commons.xml.XmlUtils;
 
+/**
+ * Tag registry, read once from {@value #CONFIG}. Immutable after construction so it is shared between renders without locking.
+ */
 @SuppressWarnings("unchecked")
 public class FreemarkerConfigurationGpdWrap {
     private static final String CONFIG = "ftl.form.tags.xml";
@@ -21,12 +25,12 @@ public class FreemarkerConfigurationGpdWrap {
     private static final String NAME_ATTR = "name";
     private static final String CLASS_ATTR = "class";
     private static final String DEFAULT_ATTR = "default";
-    private final Map<String, Class<? extends FreemarkerTagGpdWrap>> tags = Maps.newHashMap();
+    private final Map<String, Class<? extends FreemarkerTagGpdWrap>> tags;
     private String defaultTagName;
 
     private static FreemarkerConfigurationGpdWrap instance;
 
-    public static FreemarkerConfigurationGpdWrap getInstance() {
+    public static synchronized FreemarkerConfigurationGpdWrap getInstance() {
         if (instance == null) {
             instance = new FreemarkerConfigurationGpdWrap();
         }
@@ -38,11 +42,13 @@ public class FreemarkerConfigurationGpdWrap {
     }
 
     private FreemarkerConfigurationGpdWrap() {
-        parseTags(CONFIG);
+        Map<String, Class<? extends FreemarkerTagGpdWrap>> tags = Maps.newLinkedHashMap();
+        parseTags(CONFIG, tags);
+        this.tags = ImmutableMap.copyOf(tags);
         //parseTags(SystemProperties.RESOURCE_EXTENSION_PREFIX + CONFIG, false);
     }
 
-    private void parseTags(String fileName)  {
+    private void parseTags(String fileName, Map<String, Class<? extends FreemarkerTagGpdWrap>> tags) {
         InputStream is = null;
         Bundle bundle = Platform.getBundle("ru.runa.gpd.form.quick");
         //if (required) {
@@ -64,7 +70,7 @@ public class FreemarkerConfigurationGpdWrap {
                 try {
                     String className = tagElement.attributeValue(CLASS_ATTR);
                     Class<? extends FreemarkerTagGpdWrap> tagClass = (Class<? extends FreemarkerTagGpdWrap>) bundle.loadClass(className);
-                    addTag(name, tagClass);
+                    tags.put(name, tagClass);
                     if (Boolean.parseBoolean(tagElement.attributeValue(DEFAULT_ATTR))) {
                         defaultTagName = name;
                     }
@@ -75,10 +81,9 @@ public class FreemarkerConfigurationGpdWrap {
         }
     }
 
-    private void addTag(String name, Class<? extends FreemarkerTagGpdWrap> tagClass) {
-        tags.put(name, tagClass);
-    }
-
+    /**
+     * @return new tag instance, tags keep arguments of the current call so instances must not be shared between renders
+     */
     public FreemarkerTagGpdWrap getTag(String name) throws InstantiationException, IllegalAccessException {
         /*if (!tags.containsKey(name)) {
             String possibleTagClassName = "ru.runa.wf.web.ftl.method." + name + "Tag";
@@ -0,0 +1,75 @@
+package ru.runa.gpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+import ru.runa.gpd.lang.model.BotTask;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+public class BotCacheSnapshotTest {
+
+    @Test
+    public void indexesAreBuilt() {
+        BotTask second = new BotTask("station", "bot", "second");
+        BotTask first = new BotTask("station", "bot", "first");
+        BotTask embedded = new BotTask("station", "bot", "first.embedded.docx");
+        BotTask other = new BotTask("station", "other bot", "task");
+        Map<String, Set<String>> botStationBots = Maps.newHashMap();
+        botStationBots.put("station", Sets.newHashSet("bot", "other bot"));
+        Map<String, List<BotTask>> botTasks = Maps.newHashMap();
+        botTasks.put("bot", Lists.newArrayList(second, first, embedded));
+        botTasks.put("other bot", Lists.newArrayList(other));
+        Map<BotTask, IFile> botTaskFiles = Maps.newHashMap();
+        botTaskFiles.put(first, getFile("bot/first"));
+        botTaskFiles.put(other, getFile("other bot/task"));
+
+        BotCache.Snapshot snapshot = new BotCache.Snapshot(botStationBots, botTasks, botTaskFiles);
+
+        assertEquals(Lists.newArrayList("station"), snapshot.sortedBotStationNames);
+        assertEquals(Lists.newArrayList("bot", "other bot"), snapshot.sortedBotNames);
+        assertEquals(Lists.newArrayList(first, second), snapshot.sortedBotTasks.get("bot"));
+        assertSame(embedded, snapshot.botTasksByName.get("bot").get("first.embedded.docx"));
+        assertSame(other, snapshot.botTasksByName.get("other bot").get("task"));
+        assertNull(snapshot.botTasksByName.get("other bot").get("first"));
+        assertSame(first, snapshot.fileBotTasks.get(getFile("bot/first")));
+        assertSame(other, snapshot.fileBotTasks.get(getFile("other bot/task")));
+        assertNull(snapshot.fileBotTasks.get(getFile("bot/second")));
+    }
+
+    @Test
+    public void firstTaskWithSameNameWins() {
+        BotTask first = new BotTask("station", "bot", "task");
+        BotTask duplicate = new BotTask("other station", "bot", "task");
+        Map<String, List<BotTask>> botTasks = Maps.newHashMap();
+        botTasks.put("bot", Lists.newArrayList(first, duplicate));
+
+        BotCache.Snapshot snapshot = new BotCache.Snapshot(Maps.<String, Set<String>> newHashMap(), botTasks, Maps.<BotTask, IFile> newHashMap());
+
+        assertSame(first, snapshot.botTasksByName.get("bot").get("task"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotIsImmutable() {
+        Map<String, List<BotTask>> botTasks = Maps.newHashMap();
+        botTasks.put("bot", Lists.<BotTask> newArrayList());
+        BotCache.Snapshot snapshot = new BotCache.Snapshot(Maps.<String, Set<String>> newHashMap(), botTasks, Maps.<BotTask, IFile> newHashMap());
+        snapshot.botTasks.get("bot").add(new BotTask("station", "bot", "task"));
+    }
+
+    private static IFile getFile(String path) {
+        return ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/station/src/botstation/" + path));
+    }
+}
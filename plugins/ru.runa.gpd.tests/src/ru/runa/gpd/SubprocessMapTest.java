@@ -0,0 +1,63 @@
+package ru.runa.gpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SubprocessMapTest {
+    private static final String KEY = SubprocessMapTest.class.getName();
+
+    @After
+    public void removeKey() {
+        SubprocessMap.set(KEY, null);
+    }
+
+    @Test
+    public void valueIsStoredToFile() throws IOException {
+        SubprocessMap.set(KEY, "value");
+        assertEquals("value", SubprocessMap.get(KEY));
+        assertEquals("value", load().getProperty(KEY));
+        assertFalse(new File(getMapFile().getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void removedValueIsStoredToFile() throws IOException {
+        SubprocessMap.set(KEY, "value");
+        SubprocessMap.set(KEY, null);
+        assertNull(SubprocessMap.get(KEY));
+        assertFalse(load().containsKey(KEY));
+    }
+
+    @Test
+    public void fileIsNotWrittenWithoutChanges() throws IOException {
+        SubprocessMap.set(KEY, "value");
+        File mapFile = getMapFile();
+        assertTrue(mapFile.delete());
+        SubprocessMap.set(KEY, "value");
+        assertFalse(mapFile.exists());
+        SubprocessMap.set(KEY, "other value");
+        assertEquals("other value", load().getProperty(KEY));
+    }
+
+    private static File getMapFile() {
+        return new File(Activator.getPreferencesFolder() + File.separator + "subprocess-map.properties");
+    }
+
+    private static Properties load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(getMapFile())) {
+            properties.load(is);
+        }
+        return properties;
+    }
+}
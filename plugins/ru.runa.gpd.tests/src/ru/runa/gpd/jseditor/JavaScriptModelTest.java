@@ -0,0 +1,72 @@
+package ru.runa.gpd.jseditor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JavaScriptModelTest {
+
+    @Test
+    public void variablesAndFunctionsAreParsed() {
+        String source = "var a = 1;\nfunction foo(x,\n y) {\n var b;\n}\nvar c;\n";
+        JavaScriptModel model = new JavaScriptModel(source);
+        JavaScriptElement[] children = model.getChildren();
+        assertEquals(3, children.length);
+        assertEquals("a", ((JavaScriptVariable) children[0]).getName());
+        JavaScriptFunction function = (JavaScriptFunction) children[1];
+        assertEquals("foo", function.getName());
+        assertEquals("x, y", function.getArguments());
+        assertEquals(source.indexOf('}'), function.getEndOffset());
+        assertEquals(1, function.getChildren().length);
+        assertEquals("b", ((JavaScriptVariable) function.getChildren()[0]).getName());
+        assertEquals("c", ((JavaScriptVariable) children[2]).getName());
+    }
+
+    @Test
+    public void nestedFunctionIsContextOfOffset() {
+        String source = "function outer() {\n function inner() {\n  var x;\n }\n}\n";
+        JavaScriptModel model = new JavaScriptModel(source);
+        JavaScriptFunction outer = (JavaScriptFunction) model.getChildren()[0];
+        JavaScriptFunction inner = (JavaScriptFunction) outer.getChildren()[0];
+        assertEquals("inner", inner.getName());
+        assertSame(inner, model.getContextFromOffset(source.indexOf("var x")));
+        assertSame(model, model.getContextFromOffset(source.length() - 1));
+    }
+
+    @Test
+    public void functionHeaderIsMatchedWithinItsTokens() {
+        String source = "function\nvar a;\nfunction foo() {\n}\n";
+        JavaScriptModel model = new JavaScriptModel(source);
+        JavaScriptElement[] children = model.getChildren();
+        assertEquals(2, children.length);
+        assertEquals("a", ((JavaScriptVariable) children[0]).getName());
+        assertEquals("foo", ((JavaScriptFunction) children[1]).getName());
+        assertEquals("", ((JavaScriptFunction) children[1]).getArguments());
+    }
+
+    @Test
+    public void commentsAndStringsAreSkipped() {
+        String source = "// function a() {\n/* var b; */\nvar s = \"function c() { var d; }\";\n";
+        JavaScriptModel model = new JavaScriptModel(source);
+        JavaScriptElement[] children = model.getChildren();
+        assertEquals(1, children.length);
+        assertEquals("s", ((JavaScriptVariable) children[0]).getName());
+        assertEquals(2, model.getComments().length);
+        assertEquals("// function a() {", model.getComments()[0].getText());
+        assertEquals("/* var b; */", model.getComments()[1].getText());
+    }
+
+    @Test
+    public void unchangedSourceIsNotParsedAgain() {
+        String source = "var a;\n";
+        JavaScriptModel model = new JavaScriptModel(source);
+        JavaScriptElement[] children = model.getChildren();
+        model.update(new String(source));
+        assertSame(children[0], model.getChildren()[0]);
+        model.update("var b;\n");
+        assertEquals("b", ((JavaScriptVariable) model.getChildren()[0]).getName());
+        assertTrue(model.getEndOffset() == "var b;\n".length());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.runa.gpd.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class EventSupportTest {
+
+    @Test
+    public void consecutiveChangesOfPropertyAreMerged() {
+        EventSupport eventSupport = new EventSupport();
+        List<PropertyChangeEvent> events = listen(eventSupport);
+        EventSupport.batch(() -> {
+            eventSupport.firePropertyChange("name", "a", "b");
+            eventSupport.firePropertyChange("name", "b", "c");
+        });
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), "name", "a", "c");
+    }
+
+    @Test
+    public void interleavedChangesKeepOrder() {
+        EventSupport eventSupport = new EventSupport();
+        List<PropertyChangeEvent> events = listen(eventSupport);
+        EventSupport.batch(() -> {
+            eventSupport.firePropertyChange("name", "a", "b");
+            eventSupport.firePropertyChange("description", "x", "y");
+            eventSupport.firePropertyChange("name", "b", "c");
+        });
+        assertEquals(3, events.size());
+        assertEvent(events.get(0), "name", "a", "b");
+        assertEvent(events.get(1), "description", "x", "y");
+        assertEvent(events.get(2), "name", "b", "c");
+    }
+
+    @Test
+    public void additionsAreNotMerged() {
+        EventSupport eventSupport = new EventSupport();
+        List<PropertyChangeEvent> events = listen(eventSupport);
+        EventSupport.batch(() -> {
+            eventSupport.firePropertyChange("child", null, "x");
+            eventSupport.firePropertyChange("child", null, "y");
+        });
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), "child", null, "x");
+        assertEvent(events.get(1), "child", null, "y");
+    }
+
+    @Test
+    public void revertedChangeIsNotFired() {
+        EventSupport eventSupport = new EventSupport();
+        List<PropertyChangeEvent> events = listen(eventSupport);
+        EventSupport.batch(() -> {
+            eventSupport.firePropertyChange("name", "a", "b");
+            eventSupport.firePropertyChange("name", "b", "a");
+        });
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void eventsAreFiredByOutermostBatch() {
+        EventSupport eventSupport = new EventSupport();
+        List<PropertyChangeEvent> events = listen(eventSupport);
+        EventSupport.batch(() -> {
+            EventSupport.batch(() -> eventSupport.firePropertyChange("name", "a", "b"));
+            assertTrue(events.isEmpty());
+        });
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void compositeListenerReceivesBatchAtOnce() {
+        EventSupport first = new EventSupport();
+        EventSupport second = new EventSupport();
+        List<PropertyChangeEvent> events = Lists.newArrayList();
+        CompositePropertyChangeListener listener = events::add;
+        first.addPropertyChangeListener(listener);
+        second.addPropertyChangeListener(listener);
+        EventSupport.batch(() -> {
+            first.firePropertyChange("name", "a", "b");
+            second.firePropertyChange("name", "x", "y");
+        });
+        assertEquals(1, events.size());
+        CompositePropertyChangeEvent compositeEvent = (CompositePropertyChangeEvent) events.get(0);
+        assertEquals(2, compositeEvent.getEvents().size());
+        assertEvent(compositeEvent.getEvents().get(0), "name", "a", "b");
+        assertEvent(compositeEvent.getEvents().get(1), "name", "x", "y");
+    }
+
+    private static List<PropertyChangeEvent> listen(EventSupport eventSupport) {
+        List<PropertyChangeEvent> events = Lists.newArrayList();
+        eventSupport.addPropertyChangeListener(events::add);
+        return events;
+    }
+
+    private static void assertEvent(PropertyChangeEvent event, String propertyName, Object oldValue, Object newValue) {
+        assertEquals(propertyName, event.getPropertyName());
+        assertEquals(oldValue, event.getOldValue());
+        assertEquals(newValue, event.getNewValue());
+    }
+}
@@ -1,14 +1,20 @@
 package ru.runa.xpdl.convertor;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -23,6 +29,7 @@ import org.w3c.dom.Element;
 
 import ru.runa.xpdl.generated.bpmnxpdl.ActivityType;
 import ru.runa.xpdl.generated.bpmnxpdl.Artifact;
+import ru.runa.xpdl.generated.bpmnxpdl.Association;
 import ru.runa.xpdl.generated.bpmnxpdl.DataMappingType;
 import ru.runa.xpdl.generated.bpmnxpdl.ExpressionType;
 import ru.runa.xpdl.generated.bpmnxpdl.LaneType;
@@ -78,6 +85,9 @@ import ru.runa.xpdl.resource.Messages;
  */
 @SuppressWarnings("unchecked")
 public class XPDLImporter {
+    private static JAXBContext xpdlContext;
+    private static JAXBContext jpdlContext;
+
     class VariableDescription {
         String format;
         Boolean publicVisibility;
@@ -163,17 +173,30 @@ public class XPDLImporter {
         }
     }
 
+    // contexts are thread-safe and expensive to build, marshallers are not thread-safe
+    private static synchronized JAXBContext getXpdlContext() throws JAXBException {
+        if (xpdlContext == null) {
+            xpdlContext = JAXBContext.newInstance("ru.runa.xpdl.generated.bpmnxpdl");
+        }
+        return xpdlContext;
+    }
+
+    private static synchronized JAXBContext getJpdlContext() throws JAXBException {
+        if (jpdlContext == null) {
+            jpdlContext = JAXBContext.newInstance("ru.runa.xpdl.generated.jpdl32");
+        }
+        return jpdlContext;
+    }
+
     public String getProjectName(String fileName) throws Exception {
-        JAXBContext context = JAXBContext.newInstance("ru.runa.xpdl.generated.bpmnxpdl");
-        Unmarshaller u = context.createUnmarshaller();
+        Unmarshaller u = getXpdlContext().createUnmarshaller();
         Object o = u.unmarshal(new File(fileName));
         PackageType pack = (PackageType) o;
         return pack.getName() + "." + pack.getId();
     }
 
     public void parseXPDLFile(File processFolder, String xpdlFileName, boolean useDefaultSwimlane, String runaGroupName) throws Exception {
-        JAXBContext context = JAXBContext.newInstance("ru.runa.xpdl.generated.bpmnxpdl");
-        Unmarshaller u = context.createUnmarshaller();
+        Unmarshaller u = getXpdlContext().createUnmarshaller();
         Object o = u.unmarshal(new File(xpdlFileName));
         PackageType pack = (PackageType) o;
         //  swimlane
@@ -218,6 +241,16 @@ public class XPDLImporter {
                 }
             }
         }
+        Map<String, List<Association>> associationMap = new HashMap<String, List<Association>>();
+        if (pack.getAssociations() != null) {
+            for (Object _acc : pack.getAssociations().getAssociationAndAny()) {
+                Association association = (Association) (_acc);
+                addAssociation(associationMap, association.getSource(), association);
+                if (!Objects.equals(association.getSource(), association.getTarget())) {
+                    addAssociation(associationMap, association.getTarget(), association);
+                }
+            }
+        }
         java.util.List workflowProcesses = pack.getWorkflowProcesses().getWorkflowProcess();
         for (Object _wp : workflowProcesses) {
             ru.runa.xpdl.generated.bpmnxpdl.ProcessType workflowProcess = (ru.runa.xpdl.generated.bpmnxpdl.ProcessType) (_wp);
@@ -246,8 +279,7 @@ public class XPDLImporter {
         for (Object _wp : workflowProcesses) {
             ru.runa.xpdl.generated.bpmnxpdl.ProcessType workflowProcess = (ru.runa.xpdl.generated.bpmnxpdl.ProcessType) (_wp);
             makeWorkFlowProcess(workflowProcess, width, height, swimlaneMap, gpdMap, OutWorkFlowProcessMap.get(workflowProcess.getId()), varMaps.get(workflowProcess.getId()),
-                    processFormsMap.get(workflowProcess.getId()), ((pack.getAssociations() != null) ? (pack.getAssociations().getAssociationAndAny()) : (null)), artifactMap,
-                    useDefaultSwimlane);
+                    processFormsMap.get(workflowProcess.getId()), associationMap, artifactMap, useDefaultSwimlane);
         }
         for (Object _wp : workflowProcesses) {
             ru.runa.xpdl.generated.bpmnxpdl.ProcessType workflowProcess = (ru.runa.xpdl.generated.bpmnxpdl.ProcessType) (_wp);
@@ -365,10 +397,11 @@ public class XPDLImporter {
         varFile.close();
         Transformer transformer = TransformerFactory.newInstance().newTransformer();
         Result gpdResult = new StreamResult(new File(processDir, "gpd.xml"));
-        JAXBContext context = JAXBContext.newInstance("ru.runa.xpdl.generated.jpdl32");
-        Marshaller m = context.createMarshaller();
+        Marshaller m = getJpdlContext().createMarshaller();
         transformer.transform(new DOMSource(processDiagram), gpdResult);
-        m.marshal(processDefinition, new java.io.FileOutputStream(new File(processDir, "processdefinition.xml")));
+        try (OutputStream os = new FileOutputStream(new File(processDir, "processdefinition.xml"))) {
+            m.marshal(processDefinition, os);
+        }
         PrintWriter formsFile = new PrintWriter(new File(processDir, "forms.xml"), "UTF-8");
         formsFile.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + "<forms xmlns=\"http://runa.ru/xml\"\n"
                 + "  xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://runa.ru/xml forms.xsd\" >");
@@ -388,8 +421,8 @@ public class XPDLImporter {
     }
 
     private void makeWorkFlowProcess(ProcessType workflowProcess, double width, double height, Map<String, Swimlane> swimlaneMap, Map<String, Element> gpdMap,
-            ProcessDefinition processDefinition, Map<String, VariableDescription> processVarMap, List<FormDescription> processFormsList, List associationList,
-            Map<String, Artifact> artifactMap, boolean useDefaultSwimlane) throws Exception {
+            ProcessDefinition processDefinition, Map<String, VariableDescription> processVarMap, List<FormDescription> processFormsList,
+            Map<String, List<Association>> associationMap, Map<String, Artifact> artifactMap, boolean useDefaultSwimlane) throws Exception {
         Map<String, Swimlane> processSwimlaneMap = new HashMap<String, Swimlane>();
         Swimlane defaultSwimlane = null;
         Document gpd = ((DocumentBuilderFactory.newInstance()).newDocumentBuilder()).newDocument();
@@ -405,6 +438,15 @@ public class XPDLImporter {
         String startTransitionDecisionName = "$$start_transition_" + workflowProcess.getId();
         String startFictiveDecisionTaskName = "$$start_task_" + workflowProcess.getId();
         List transitions = workflowProcess.getTransitions().getTransition();
+        // activity id -> number of outgoing transitions
+        Map<String, Integer> outgoingTransitionCounts = new HashMap<String, Integer>();
+        Set<String> transitionTargets = new HashSet<String>();
+        for (Object _tr : transitions) {
+            ru.runa.xpdl.generated.bpmnxpdl.TransitionType transition = (ru.runa.xpdl.generated.bpmnxpdl.TransitionType) (_tr);
+            Integer count = outgoingTransitionCounts.get(transition.getFrom());
+            outgoingTransitionCounts.put(transition.getFrom(), count == null ? 1 : count + 1);
+            transitionTargets.add(transition.getTo());
+        }
         Map<String, GeneralNodeType> nodeMapById = new HashMap<String, GeneralNodeType>();
         Map<String, Element> gpdNodeMap = new HashMap<String, Element>();
         Map<String, List<TransitionDescription>> reverseTransitionMap = new HashMap<String, List<TransitionDescription>>(); //  
@@ -507,7 +549,7 @@ public class XPDLImporter {
                 //   Route -   ,  
                 boolean exclusive = ((routeType.getGatewayType().equalsIgnoreCase("Exclusive")) || (routeType.getGatewayType().equalsIgnoreCase("XOR"))
                         || (routeType.getGatewayType().equalsIgnoreCase("Inclusive")) || (routeType.getGatewayType().equalsIgnoreCase("OR")));
-                if (!exclusive && (isMergeActivity(activityType, transitions))) {
+                if (!exclusive && (isMergeActivity(activityType, outgoingTransitionCounts))) {
                     joinNode = new JoinImpl();
                     nodeMapById.put(activityType.getId(), joinNode);
                     processDefinition.getDescriptionOrSwimlaneOrStartState().add(joinNode);
@@ -574,10 +616,10 @@ public class XPDLImporter {
                 gpdNodeMap.put(taskName, gpdNode);
                 GeneralNodeType genNode = ((taskNode != null) ? (taskNode) : (decisionNode != null) ? (decisionNode) : (forkNode != null) ? (forkNode)
                         : (joinNode != null) ? (joinNode) : (processStateNode != null) ? (processStateNode) : (null));
-                if (isStartActivity(activityType, transitions)) {
+                if (isStartActivity(activityType, transitionTargets)) {
                     generateStartTransition(startState, genNode, gpdNodebegin, gpd, reverseTransitionMap, transitionDescriptionMap);
                 }
-                if (isFinishActivity(activityType, transitions)) {
+                if (isFinishActivity(activityType, outgoingTransitionCounts)) {
                     if (genNode != null) {
                         generateEndTransition(genNode, endState, gpdNode, gpd, reverseTransitionMap, transitionDescriptionMap);
                     }
@@ -585,10 +627,10 @@ public class XPDLImporter {
                 break;
             }
             //    
+            List<Association> associationList = associationMap.get(activityType.getId());
             if (associationList != null) {
-                for (Object _acc : associationList) {
+                for (Association association : associationList) {
                     Artifact artifact = null;
-                    ru.runa.xpdl.generated.bpmnxpdl.Association association = (ru.runa.xpdl.generated.bpmnxpdl.Association) (_acc);
                     if (activityType.getId().equals(association.getSource())) {
                         artifact = artifactMap.get(association.getTarget());
                     }
@@ -978,36 +1020,26 @@ public class XPDLImporter {
         return decisionNode;
     }
 
-    private boolean isMergeActivity(ActivityType activityType, List transitions) {
-        int outGoingTransitions = 0;
-        for (Object _tr : transitions) {
-            ru.runa.xpdl.generated.bpmnxpdl.TransitionType transition = (ru.runa.xpdl.generated.bpmnxpdl.TransitionType) (_tr);
-            if (transition.getFrom().equals(activityType.getId())) {
-                outGoingTransitions++;
-            }
-        }
-        return ((outGoingTransitions <= 1) ? (true) : (false));
+    private boolean isMergeActivity(ActivityType activityType, Map<String, Integer> outgoingTransitionCounts) {
+        Integer outGoingTransitions = outgoingTransitionCounts.get(activityType.getId());
+        return outGoingTransitions == null || outGoingTransitions <= 1;
     }
 
-    private boolean isFinishActivity(ActivityType activityType, List transitions) {
-        for (Object _tr : transitions) {
-            ru.runa.xpdl.generated.bpmnxpdl.TransitionType transition = (ru.runa.xpdl.generated.bpmnxpdl.TransitionType) (_tr);
-            if (transition.getFrom().equals(activityType.getId())) {
-                return false;
-            }
-        }
-        return true;
+    private boolean isFinishActivity(ActivityType activityType, Map<String, Integer> outgoingTransitionCounts) {
+        return !outgoingTransitionCounts.containsKey(activityType.getId());
     }
 
-    //    activityType 
-    private boolean isStartActivity(ActivityType activityType, List transitions) {
-        for (Object _tr : transitions) {
-            ru.runa.xpdl.generated.bpmnxpdl.TransitionType transition = (ru.runa.xpdl.generated.bpmnxpdl.TransitionType) (_tr);
-            if (transition.getTo().equals(activityType.getId())) {
-                return false;
-            }
+    private boolean isStartActivity(ActivityType activityType, Set<String> transitionTargets) {
+        return !transitionTargets.contains(activityType.getId());
+    }
+
+    private void addAssociation(Map<String, List<Association>> associationMap, String activityId, Association association) {
+        List<Association> list = associationMap.get(activityId);
+        if (list == null) {
+            list = new LinkedList<Association>();
+            associationMap.put(activityId, list);
         }
-        return true; // To change body of created methods use File | Settings | File Templates.
+        list.add(association);
     }
 
     private void generateStartTransition(StartState startState, GeneralNodeType nodeTo, Element gpdNodebegin, Document gpd,
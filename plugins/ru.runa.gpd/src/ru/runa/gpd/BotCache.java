@@ -2,6 +2,7 @@ package ru.runa.gpd;
 
 import java.io.InputStreamReader;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -10,13 +11,13 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ui.PlatformUI;
 
 import ru.runa.gpd.lang.model.BotTask;
 import ru.runa.gpd.util.BotTaskUtils;
 import ru.runa.gpd.util.IOUtils;
 
-import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
@@ -28,68 +29,117 @@ import com.google.common.io.CharStreams;
  * 
  * Currently uniqueness of bot name (globally) is required.
  * 
+ * Readers use immutable snapshot without locking, modifications are serialized and publish a new snapshot.
+ * 
  * @author Dofs
  * @since 3.6
  */
 public class BotCache {
     public final static String CONFIGURATION_FILE_EXTENSION = "conf";
     public final static String WORD_TEMPLATE_FILE_EXTENSION = "docx";
-    private static final Map<String, Set<String>> BOT_STATION_BOTS = Maps.newHashMap();
-    private static final Map<String, List<BotTask>> BOT_TASKS = Maps.newHashMap();
-    private static final Map<BotTask, IFile> BOT_TASK_FILES = Maps.newHashMap();
+    private static final Object WRITE_LOCK = new Object();
+    private static volatile Snapshot snapshot = new Snapshot(new HashMap<String, Set<String>>(), new HashMap<String, List<BotTask>>(),
+            new HashMap<BotTask, IFile>());
     static {
         reload();
     }
 
-    public static synchronized void reload() {
-        try {
-            BOT_STATION_BOTS.clear();
-            BOT_TASKS.clear();
-            BOT_TASK_FILES.clear();
-            IProject[] projects = IOUtils.getAllBotStationProjects();
-            for (IProject botStationProject : projects) {
-                Set<String> botNames = Sets.newHashSet();
-                IFolder botStationFolder = botStationProject.getFolder("src/botstation");
-                for (IResource botResource : botStationFolder.members()) {
-                    if (botResource instanceof IFolder) {
-                        IFolder botFolder = (IFolder) botResource;
-                        String botName = botFolder.getName();
-                        botNames.add(botName);
-                        List<BotTask> botTasks = Lists.newArrayList();
-                        for (IResource taskResource : botFolder.members()) {
-                            if (!(taskResource instanceof IFile)) {
-                                continue;
-                            }
-                            String extension = taskResource.getFileExtension();
-                            if (Strings.isNullOrEmpty(extension) || !extension.equals(CONFIGURATION_FILE_EXTENSION)) {
-                                IFile botTaskFile = (IFile) taskResource;
-                                try {
-                                    cacheBotTask(botStationProject.getName(), botName, botTaskFile, botTasks);
-                                } catch (Exception e) {
-                                    PluginLogger.logError(e);
-                                }
-                            }
+    public static void reload() {
+        synchronized (WRITE_LOCK) {
+            Map<String, Set<String>> botStationBots = Maps.newHashMap();
+            Map<String, List<BotTask>> botTasks = Maps.newHashMap();
+            Map<BotTask, IFile> botTaskFiles = Maps.newHashMap();
+            try {
+                IProject[] projects = IOUtils.getAllBotStationProjects();
+                for (IProject botStationProject : projects) {
+                    loadBotStation(botStationProject, botStationBots, botTasks, botTaskFiles);
+                }
+            } catch (final Throwable th) {
+                logLoadError(th);
+            } finally {
+                snapshot = new Snapshot(botStationBots, botTasks, botTaskFiles);
+            }
+        }
+    }
+
+    /**
+     * Reloads bots and bot tasks of one bot station, other bot stations are kept as is.
+     */
+    public static void reload(IProject botStationProject) {
+        synchronized (WRITE_LOCK) {
+            Snapshot current = snapshot;
+            Map<String, Set<String>> botStationBots = Maps.newHashMap(current.botStationBots);
+            Map<String, List<BotTask>> botTasks = Maps.newHashMap(current.botTasks);
+            Map<BotTask, IFile> botTaskFiles = Maps.newHashMap(current.botTaskFiles);
+            Set<String> oldBotNames = botStationBots.remove(botStationProject.getName());
+            if (oldBotNames != null) {
+                for (String botName : oldBotNames) {
+                    List<BotTask> oldBotTasks = botTasks.remove(botName);
+                    if (oldBotTasks != null) {
+                        for (BotTask botTask : oldBotTasks) {
+                            botTaskFiles.remove(botTask);
                         }
-                        BOT_TASKS.put(botName, botTasks);
                     }
                 }
-                BOT_STATION_BOTS.put(botStationProject.getName(), botNames);
             }
-        } catch (final Throwable th) {
             try {
-                PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
-                    @Override
-                    public void run() {
-                        PluginLogger.logError(Localization.getString("BotCache.unabletoload"), th);
+                if (botStationProject.exists()) {
+                    loadBotStation(botStationProject, botStationBots, botTasks, botTaskFiles);
+                }
+            } catch (final Throwable th) {
+                logLoadError(th);
+            } finally {
+                snapshot = new Snapshot(botStationBots, botTasks, botTaskFiles);
+            }
+        }
+    }
+
+    private static void loadBotStation(IProject botStationProject, Map<String, Set<String>> botStationBots, Map<String, List<BotTask>> botTasksMap,
+            Map<BotTask, IFile> botTaskFiles) throws CoreException {
+        Set<String> botNames = Sets.newHashSet();
+        IFolder botStationFolder = botStationProject.getFolder("src/botstation");
+        for (IResource botResource : botStationFolder.members()) {
+            if (botResource instanceof IFolder) {
+                IFolder botFolder = (IFolder) botResource;
+                String botName = botFolder.getName();
+                botNames.add(botName);
+                List<BotTask> botTasks = Lists.newArrayList();
+                for (IResource taskResource : botFolder.members()) {
+                    if (!(taskResource instanceof IFile)) {
+                        continue;
+                    }
+                    String extension = taskResource.getFileExtension();
+                    if (Strings.isNullOrEmpty(extension) || !extension.equals(CONFIGURATION_FILE_EXTENSION)) {
+                        IFile botTaskFile = (IFile) taskResource;
+                        try {
+                            BotTask botTask = readBotTask(botStationProject.getName(), botName, botTaskFile);
+                            botTasks.add(botTask);
+                            botTaskFiles.put(botTask, botTaskFile);
+                        } catch (Exception e) {
+                            PluginLogger.logError(e);
+                        }
                     }
-                });
-            } catch (Exception e) {
-                PluginLogger.logErrorWithoutDialog("BotCache.unabletoload", e);
+                }
+                botTasksMap.put(botName, botTasks);
             }
         }
+        botStationBots.put(botStationProject.getName(), botNames);
     }
 
-    private static void cacheBotTask(String botStationName, String botName, IFile botTaskFile, List<BotTask> botTasks) {
+    private static void logLoadError(final Throwable th) {
+        try {
+            PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    PluginLogger.logError(Localization.getString("BotCache.unabletoload"), th);
+                }
+            });
+        } catch (Exception e) {
+            PluginLogger.logErrorWithoutDialog("BotCache.unabletoload", e);
+        }
+    }
+
+    private static BotTask readBotTask(String botStationName, String botName, IFile botTaskFile) {
         try {
             InputStreamReader reader = null;
             if (!botTaskFile.isSynchronized(IResource.DEPTH_ONE)) {
@@ -108,9 +158,7 @@ public class BotCache {
                         }
                     }
                 }
-                BotTask botTask = BotTaskUtils.createBotTask(botStationName, botName, botTaskFile.getName(), lines.get(0), configurationFileData);
-                botTasks.add(botTask);
-                BOT_TASK_FILES.put(botTask, botTaskFile);
+                return BotTaskUtils.createBotTask(botStationName, botName, botTaskFile.getName(), lines.get(0), configurationFileData);
             } finally {
                 if (reader != null) {
                     reader.close();
@@ -121,25 +169,38 @@ public class BotCache {
         }
     }
 
-    public static synchronized void invalidateBotTask(IFile botTaskFile, BotTask botTask) {
-        String botName = botTaskFile.getParent().getName();
-        List<BotTask> botTasks = BOT_TASKS.get(botName);
-        if (botTasks == null) {
-            botTasks = Lists.newArrayList();
-            BOT_TASKS.put(botName, botTasks);
+    public static void invalidateBotTask(IFile botTaskFile, BotTask botTask) {
+        synchronized (WRITE_LOCK) {
+            String botName = botTaskFile.getParent().getName();
+            BotTask newBotTask = readBotTask(botTaskFile.getProject().getName(), botName, botTaskFile);
+            Snapshot current = snapshot;
+            Map<String, List<BotTask>> botTasks = Maps.newHashMap(current.botTasks);
+            Map<BotTask, IFile> botTaskFiles = Maps.newHashMap(current.botTaskFiles);
+            List<BotTask> tasks = current.botTasks.containsKey(botName) ? Lists.newArrayList(current.botTasks.get(botName))
+                    : Lists.<BotTask> newArrayList();
+            tasks.remove(botTask);
+            botTaskFiles.remove(botTask);
+            tasks.add(newBotTask);
+            botTaskFiles.put(newBotTask, botTaskFile);
+            botTasks.put(botName, tasks);
+            snapshot = new Snapshot(current.botStationBots, botTasks, botTaskFiles);
         }
-        botTasks.remove(botTask);
-        BOT_TASK_FILES.remove(botTask);
-        cacheBotTask(botTaskFile.getProject().getName(), botName, botTaskFile, botTasks);
     }
 
-    public static synchronized void botTaskHasBeenDeleted(IFile botTaskFile, BotTask botTask) {
-        String botName = botTaskFile.getParent().getName();
-        List<BotTask> botTasks = BOT_TASKS.get(botName);
-        if (botTasks != null) {
-            botTasks.remove(botTask);
+    public static void botTaskHasBeenDeleted(IFile botTaskFile, BotTask botTask) {
+        synchronized (WRITE_LOCK) {
+            String botName = botTaskFile.getParent().getName();
+            Snapshot current = snapshot;
+            Map<String, List<BotTask>> botTasks = Maps.newHashMap(current.botTasks);
+            Map<BotTask, IFile> botTaskFiles = Maps.newHashMap(current.botTaskFiles);
+            if (botTasks.containsKey(botName)) {
+                List<BotTask> tasks = Lists.newArrayList(botTasks.get(botName));
+                tasks.remove(botTask);
+                botTasks.put(botName, tasks);
+            }
+            botTaskFiles.remove(botTask);
+            snapshot = new Snapshot(current.botStationBots, botTasks, botTaskFiles);
         }
-        BOT_TASK_FILES.remove(botTask);
     }
 
     /**
@@ -147,10 +208,8 @@ public class BotCache {
      * 
      * @return not <code>null</code>
      */
-    public static synchronized List<String> getAllBotStationNames() {
-        List<String> botStationNames = Lists.newArrayList(BOT_STATION_BOTS.keySet());
-        Collections.sort(botStationNames);
-        return botStationNames;
+    public static List<String> getAllBotStationNames() {
+        return Lists.newArrayList(snapshot.sortedBotStationNames);
     }
 
     /**
@@ -160,8 +219,8 @@ public class BotCache {
      *            bot station name
      * @return set of bot names
      */
-    public static synchronized Set<String> getBotNames(String botStationName) {
-        return BOT_STATION_BOTS.get(botStationName);
+    public static Set<String> getBotNames(String botStationName) {
+        return snapshot.botStationBots.get(botStationName);
     }
 
     /**
@@ -169,10 +228,8 @@ public class BotCache {
      * 
      * @return not <code>null</code>
      */
-    public static synchronized List<String> getAllBotNames() {
-        List<String> botNames = Lists.newArrayList(BOT_TASKS.keySet());
-        Collections.sort(botNames);
-        return botNames;
+    public static List<String> getAllBotNames() {
+        return Lists.newArrayList(snapshot.sortedBotNames);
     }
 
     /**
@@ -180,17 +237,9 @@ public class BotCache {
      * 
      * @return bot tasks, not <code>null</code>
      */
-    public static synchronized List<BotTask> getBotTasks(String botName) {
-        List<BotTask> botTasks = Lists.newArrayList();
-        if (BOT_TASKS.containsKey(botName)) {
-            for (BotTask task : BOT_TASKS.get(botName)) {
-                if (task.getName().indexOf("embedded.docx") == -1) {
-                    botTasks.add(task);
-                }
-            }
-            Collections.sort(botTasks);
-        }
-        return botTasks;
+    public static List<BotTask> getBotTasks(String botName) {
+        List<BotTask> botTasks = snapshot.sortedBotTasks.get(botName);
+        return botTasks != null ? Lists.newArrayList(botTasks) : Lists.<BotTask> newArrayList();
     }
 
     /**
@@ -198,21 +247,15 @@ public class BotCache {
      * 
      * @return bot task or <code>null</code>
      */
-    public static synchronized BotTask getBotTask(String botName, String botTaskName) {
-        if (BOT_TASKS.containsKey(botName)) {
-            for (BotTask botTask : BOT_TASKS.get(botName)) {
-                if (Objects.equal(botTaskName, botTask.getName())) {
-                    return botTask;
-                }
-            }
-        }
-        return null;
+    public static BotTask getBotTask(String botName, String botTaskName) {
+        Map<String, BotTask> botTasks = snapshot.botTasksByName.get(botName);
+        return botTasks != null ? botTasks.get(botTaskName) : null;
     }
 
     /**
      * Gets bot task by bot and name.
      */
-    public static synchronized BotTask getBotTaskNotNull(String botName, String botTaskName) {
+    public static BotTask getBotTaskNotNull(String botName, String botTaskName) {
         BotTask botTask = getBotTask(botName, botTaskName);
         if (botTask == null) {
             throw new RuntimeException("bot task not found by name '" + botTaskName + "' in '" + botName + "'");
@@ -223,19 +266,14 @@ public class BotCache {
     /**
      * Gets bot task by file.
      */
-    public static synchronized BotTask getBotTask(IFile botTaskFile) {
-        for (Map.Entry<BotTask, IFile> entry : BOT_TASK_FILES.entrySet()) {
-            if (Objects.equal(botTaskFile, entry.getValue())) {
-                return entry.getKey();
-            }
-        }
-        return null;
+    public static BotTask getBotTask(IFile botTaskFile) {
+        return snapshot.fileBotTasks.get(botTaskFile);
     }
 
     /**
      * Gets bot task by file.
      */
-    public static synchronized BotTask getBotTaskNotNull(IFile botTaskFile) {
+    public static BotTask getBotTaskNotNull(IFile botTaskFile) {
         BotTask botTask = getBotTask(botTaskFile);
         if (botTask != null) {
             return botTask;
@@ -247,10 +285,60 @@ public class BotCache {
      * @return info file (without extension), not <code>null</code> for existing
      *         bot task
      */
-    public static synchronized IFile getBotTaskFile(BotTask botTask) {
-        if (!BOT_TASK_FILES.containsKey(botTask)) {
+    public static IFile getBotTaskFile(BotTask botTask) {
+        IFile botTaskFile = snapshot.botTaskFiles.get(botTask);
+        if (botTaskFile == null) {
             throw new RuntimeException("No file exist for bot task " + botTask.getName());
         }
-        return BOT_TASK_FILES.get(botTask);
+        return botTaskFile;
+    }
+
+    /**
+     * Immutable cache state with prepared lookup indexes and sorted views. Package visible for tests.
+     */
+    static class Snapshot {
+        final Map<String, Set<String>> botStationBots;
+        final Map<String, List<BotTask>> botTasks;
+        final Map<BotTask, IFile> botTaskFiles;
+        final Map<IFile, BotTask> fileBotTasks = Maps.newHashMap();
+        final Map<String, Map<String, BotTask>> botTasksByName = Maps.newHashMap();
+        final Map<String, List<BotTask>> sortedBotTasks = Maps.newHashMap();
+        final List<String> sortedBotStationNames;
+        final List<String> sortedBotNames;
+
+        Snapshot(Map<String, Set<String>> botStationBots, Map<String, List<BotTask>> botTasks, Map<BotTask, IFile> botTaskFiles) {
+            Map<String, Set<String>> stationBots = Maps.newHashMap();
+            for (Map.Entry<String, Set<String>> entry : botStationBots.entrySet()) {
+                stationBots.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+            }
+            this.botStationBots = Collections.unmodifiableMap(stationBots);
+            Map<String, List<BotTask>> tasks = Maps.newHashMap();
+            for (Map.Entry<String, List<BotTask>> entry : botTasks.entrySet()) {
+                tasks.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+                Map<String, BotTask> byName = Maps.newHashMap();
+                List<BotTask> visible = Lists.newArrayList();
+                for (BotTask botTask : entry.getValue()) {
+                    // first one wins as in former linear search
+                    if (!byName.containsKey(botTask.getName())) {
+                        byName.put(botTask.getName(), botTask);
+                    }
+                    if (botTask.getName().indexOf("embedded.docx") == -1) {
+                        visible.add(botTask);
+                    }
+                }
+                Collections.sort(visible);
+                botTasksByName.put(entry.getKey(), byName);
+                sortedBotTasks.put(entry.getKey(), visible);
+            }
+            this.botTasks = Collections.unmodifiableMap(tasks);
+            this.botTaskFiles = Collections.unmodifiableMap(Maps.newHashMap(botTaskFiles));
+            for (Map.Entry<BotTask, IFile> entry : botTaskFiles.entrySet()) {
+                fileBotTasks.put(entry.getValue(), entry.getKey());
+            }
+            sortedBotStationNames = Lists.newArrayList(botStationBots.keySet());
+            Collections.sort(sortedBotStationNames);
+            sortedBotNames = Lists.newArrayList(botTasks.keySet());
+            Collections.sort(sortedBotNames);
+        }
     }
 }
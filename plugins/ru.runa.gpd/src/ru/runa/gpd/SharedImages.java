@@ -5,15 +5,25 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 import org.osgi.framework.Bundle;
 
+import com.google.common.base.Optional;
+
+/**
+ * Images are shared and must not be disposed by clients. Descriptors of bundle entries are cached, so repeated requests neither build URLs nor
+ * probe them.
+ */
 public class SharedImages {
     private static final Map<ImageDescriptor, Image> imageMap = new HashMap<ImageDescriptor, Image>();
+    // bundle id -> file name -> descriptor, absent for missing tested entries
+    private static final Map<Long, Map<String, Optional<ImageDescriptor>>> descriptors = new ConcurrentHashMap<>();
+    private static final Map<Long, Map<String, Optional<ImageDescriptor>>> testedDescriptors = new ConcurrentHashMap<>();
 
-    public static Image getImage(ImageDescriptor imageDescriptor) {
+    public static synchronized Image getImage(ImageDescriptor imageDescriptor) {
         Image image = imageMap.get(imageDescriptor);
         if (image == null && imageDescriptor != null) {
             image = imageDescriptor.createImage();
@@ -40,21 +50,33 @@ public class SharedImages {
         if (fileName == null) {
             return null;
         }
+        Map<String, Optional<ImageDescriptor>> bundleDescriptors = (test ? testedDescriptors : descriptors).computeIfAbsent(bundle.getBundleId(),
+                key -> new ConcurrentHashMap<>());
+        Optional<ImageDescriptor> imageDescriptor = bundleDescriptors.get(fileName);
+        if (imageDescriptor == null) {
+            try {
+                imageDescriptor = Optional.fromNullable(createImageDescriptor(bundle, fileName, test));
+            } catch (MalformedURLException e) {
+                // not cached to be reported again
+                PluginLogger.logError(e);
+                return null;
+            }
+            bundleDescriptors.put(fileName, imageDescriptor);
+        }
+        return imageDescriptor.orNull();
+    }
+
+    private static ImageDescriptor createImageDescriptor(Bundle bundle, String fileName, boolean test) throws MalformedURLException {
         URL installURL = bundle.getEntry("/");
-        try {
-            URL url = new URL(installURL, fileName);
-            if (test) {
-                try {
-                    url.openConnection();
-                } catch (IOException e) {
-                    return null;
-                }
+        URL url = new URL(installURL, fileName);
+        if (test) {
+            try {
+                url.openConnection();
+            } catch (IOException e) {
+                return null;
             }
-            return ImageDescriptor.createFromURL(url);
-        } catch (MalformedURLException e) {
-            PluginLogger.logError(e);
-            return null;
         }
+        return ImageDescriptor.createFromURL(url);
     }
 
     public static ImageDescriptor getImageDescriptor(String fileName) {
@@ -4,8 +4,18 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Properties;
 
+import com.google.common.base.Objects;
+
+/**
+ * File is written only on actual changes and is replaced atomically so it is never left truncated.
+ */
 public class SubprocessMap {
 
     private static final File mapFile = new File(Activator.getPreferencesFolder() + File.separator + "subprocess-map.properties");
@@ -16,7 +26,9 @@ public class SubprocessMap {
             if (!mapFile.exists()) {
                 mapFile.createNewFile();
             }
-            data.load(new FileInputStream(mapFile));
+            try (InputStream is = new FileInputStream(mapFile)) {
+                data.load(is);
+            }
         } catch (IOException e) {
             PluginLogger.logErrorWithoutDialog(e.getMessage());
         }
@@ -25,21 +37,36 @@ public class SubprocessMap {
     private SubprocessMap() {
     }
 
-    public static void set(String key, String value) {
+    public static synchronized void set(String key, String value) {
+        if (Objects.equal(value, data.getProperty(key))) {
+            return;
+        }
         if (value == null) {
             data.remove(key);
         } else {
             data.put(key, value);
         }
+        store();
+    }
+
+    public static synchronized String get(String key) {
+        return data.getProperty(key);
+    }
+
+    private static void store() {
         try {
-            data.store(new FileOutputStream(mapFile), null);
+            File tempFile = new File(mapFile.getPath() + ".tmp");
+            try (OutputStream os = new FileOutputStream(tempFile)) {
+                data.store(os, null);
+            }
+            try {
+                Files.move(tempFile.toPath(), mapFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), mapFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             PluginLogger.logErrorWithoutDialog(e.getMessage());
         }
     }
 
-    public static String get(String key) {
-        return data.getProperty(key);
-    }
-
 }
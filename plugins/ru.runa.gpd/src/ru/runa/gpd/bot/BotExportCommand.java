@@ -1,6 +1,6 @@
 package ru.runa.gpd.bot;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -36,10 +36,7 @@ public class BotExportCommand extends BotSyncCommand {
         try {
             int totalWork = 1;
             progressMonitor.beginTask("", totalWork);
-            ByteArrayOutputStream botStream = new ByteArrayOutputStream();
-            getBotStream(botStream, getBotFolder());
-            botStream.close();
-            outputStream.write(botStream.toByteArray());
+            getBotStream(outputStream, getBotFolder());
             progressMonitor.worked(1);
             ModalContext.checkCanceled(progressMonitor);
             progressMonitor.done();
@@ -50,8 +47,11 @@ public class BotExportCommand extends BotSyncCommand {
         }
     }
 
+    /**
+     * Writes bot archive to the stream, the stream is left open so the archive can be nested into outer one without buffering.
+     */
     protected void getBotStream(OutputStream out, IFolder botFolder) throws IOException, CoreException {
-        ZipOutputStream zipStream = new ZipOutputStream(out);
+        ZipOutputStream zipStream = new ZipOutputStream(new NonClosingOutputStream(out));
         zipStream.putNextEntry(new ZipEntry("script.xml"));
         List<BotTask> botTaskForExport = getBotTasksForExport(botFolder);
         Document document = BotScriptUtils.createScriptForBotLoading(botFolder.getName(), botTaskForExport);
@@ -59,7 +59,6 @@ public class BotExportCommand extends BotSyncCommand {
         writeConfigurationFiles(botFolder, zipStream);
         writeEmbeddedFiles(botFolder, zipStream);
         zipStream.close();
-        out.flush();
     }
 
     protected IFolder getBotFolder() {
@@ -87,4 +86,21 @@ public class BotExportCommand extends BotSyncCommand {
         }
     }
 
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        public NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
 }
@@ -1,6 +1,5 @@
 package ru.runa.gpd.bot;
 
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -38,10 +37,7 @@ public class BotStationExportCommand extends BotExportCommand {
             for (IFolder botFolder : botFolders) {
                 progressMonitor.subTask(botFolder.getName());
                 zipStream.putNextEntry(new ZipEntry(botFolder.getName() + ".bot"));
-                ByteArrayOutputStream botStream = new ByteArrayOutputStream();
-                getBotStream(botStream, botFolder);
-                botStream.close();
-                zipStream.write(botStream.toByteArray());
+                getBotStream(zipStream, botFolder);
                 progressMonitor.worked(1);
                 ModalContext.checkCanceled(progressMonitor);
             }
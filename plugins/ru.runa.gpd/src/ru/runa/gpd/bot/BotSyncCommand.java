@@ -15,7 +15,7 @@ public abstract class BotSyncCommand implements IRunnableWithProgress {
     protected abstract void execute(IProgressMonitor progressMonitor) throws InvocationTargetException;
 
     protected void write(ZipOutputStream zipOutputStream, ZipEntry entry, IFile contents) throws IOException, CoreException {
-        byte[] readBuffer = new byte[1024];
+        byte[] readBuffer = new byte[8192];
         zipOutputStream.putNextEntry(entry);
         InputStream contentStream = contents.getContents();
         try {
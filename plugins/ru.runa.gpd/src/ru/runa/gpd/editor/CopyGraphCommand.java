@@ -52,6 +52,7 @@ import ru.runa.gpd.lang.model.bpmn.CatchEventNode;
 import ru.runa.gpd.lang.model.bpmn.IBoundaryEventContainer;
 import ru.runa.gpd.ui.dialog.InfoWithDetailsDialog;
 import ru.runa.gpd.ui.dialog.MultipleSelectionDialog;
+import ru.runa.gpd.util.EventSupport;
 import ru.runa.gpd.util.IOUtils;
 import ru.runa.gpd.util.SwimlaneDisplayMode;
 import ru.runa.gpd.util.VariableUtils;
@@ -262,32 +263,38 @@ public class CopyGraphCommand extends Command {
                     }
                 }
             }
-            // run copy actions
-            for (ExtraCopyAction copyAction : sortedCopyActions) {
-                if (copyAction.isEnabled()) {
-                    PluginLogger.logInfo("Copying '" + copyAction + "'");
-                    copyAction.execute();
-                    executedCopyActions.add(copyAction);
-                } else {
-                    PluginLogger.logInfo("Ignored to copy '" + copyAction + "'");
+            // variables and swimlanes listeners are notified once
+            EventSupport.startBatch();
+            try {
+                // run copy actions
+                for (ExtraCopyAction copyAction : sortedCopyActions) {
+                    if (copyAction.isEnabled()) {
+                        PluginLogger.logInfo("Copying '" + copyAction + "'");
+                        copyAction.execute();
+                        executedCopyActions.add(copyAction);
+                    } else {
+                        PluginLogger.logInfo("Ignored to copy '" + copyAction + "'");
+                    }
                 }
-            }
-            // set swimlanes
-            for (Map.Entry<String, NamedGraphElement> entry : targetNodeMap.entrySet()) {
-                if (entry.getValue() instanceof SwimlanedNode) {
-                    boolean ignoreSwimlane = targetDefinition instanceof SubprocessDefinition && entry.getValue() instanceof StartState;
-                    if (!ignoreSwimlane) {
-                        Swimlane swimlane = targetDefinition.getSwimlaneByName(nodeToSwimlaneNameMap.get(entry.getKey()));
-                        // this crazy line created because
-                        // element.getConstraint() == null is checking of
-                        // visibility for swimlane in many places
-                        // TODO copy/paste eliminate swimlane.getConstraint() == null as logic base
-                        if (swimlane != null && targetDefinition.getSwimlaneDisplayMode() == SwimlaneDisplayMode.none) {
-                            swimlane.setConstraint(null);
+                // set swimlanes
+                for (Map.Entry<String, NamedGraphElement> entry : targetNodeMap.entrySet()) {
+                    if (entry.getValue() instanceof SwimlanedNode) {
+                        boolean ignoreSwimlane = targetDefinition instanceof SubprocessDefinition && entry.getValue() instanceof StartState;
+                        if (!ignoreSwimlane) {
+                            Swimlane swimlane = targetDefinition.getSwimlaneByName(nodeToSwimlaneNameMap.get(entry.getKey()));
+                            // this crazy line created because
+                            // element.getConstraint() == null is checking of
+                            // visibility for swimlane in many places
+                            // TODO copy/paste eliminate swimlane.getConstraint() == null as logic base
+                            if (swimlane != null && targetDefinition.getSwimlaneDisplayMode() == SwimlaneDisplayMode.none) {
+                                swimlane.setConstraint(null);
+                            }
+                            ((SwimlanedNode) entry.getValue()).setSwimlane(swimlane);
                         }
-                        ((SwimlanedNode) entry.getValue()).setSwimlane(swimlane);
                     }
                 }
+            } finally {
+                EventSupport.finishBatch();
             }
         } catch (Exception e) {
             PluginLogger.logError("'Paste' operation failed", e);
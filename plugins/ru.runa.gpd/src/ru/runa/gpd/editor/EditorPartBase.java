@@ -1,5 +1,6 @@
 package ru.runa.gpd.editor;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.Comparator;
 
@@ -37,7 +38,9 @@ import org.eclipse.ui.forms.widgets.Section;
 import org.eclipse.ui.part.EditorPart;
 
 import ru.runa.gpd.Localization;
+import ru.runa.gpd.PropertyNames;
 import ru.runa.gpd.lang.model.ProcessDefinition;
+import ru.runa.gpd.util.CompositePropertyChangeEvent;
 
 public abstract class EditorPartBase<T> extends EditorPart implements PropertyChangeListener {
 
@@ -64,6 +67,28 @@ public abstract class EditorPartBase<T> extends EditorPart implements PropertyCh
         super.dispose();
     }
 
+    /**
+     * Passes events of {@link CompositePropertyChangeEvent} to {@link #propertyChange(PropertyChangeEvent)} one by one. Children change event
+     * rebuilds the whole table, so other events of the batch are skipped then.
+     *
+     * @return <code>true</code> if the event was composite
+     */
+    protected boolean dispatchCompositeEvent(PropertyChangeEvent event) {
+        if (!(event instanceof CompositePropertyChangeEvent)) {
+            return false;
+        }
+        for (PropertyChangeEvent childEvent : ((CompositePropertyChangeEvent) event).getEvents()) {
+            if (PropertyNames.PROPERTY_CHILDREN_CHANGED.equals(childEvent.getPropertyName())) {
+                propertyChange(childEvent);
+                return true;
+            }
+        }
+        for (PropertyChangeEvent childEvent : ((CompositePropertyChangeEvent) event).getEvents()) {
+            propertyChange(childEvent);
+        }
+        return true;
+    }
+
     @Override
     public void setFocus() {
         updateUI();
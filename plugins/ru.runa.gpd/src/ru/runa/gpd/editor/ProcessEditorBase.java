@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.eclipse.core.internal.resources.ResourceException;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
@@ -14,6 +15,10 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.gef.EditDomain;
 import org.eclipse.gef.EditPart;
@@ -23,6 +28,8 @@ import org.eclipse.gef.ui.actions.ActionRegistry;
 import org.eclipse.gef.ui.parts.GraphicalEditor;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorSite;
@@ -252,13 +259,14 @@ public abstract class ProcessEditorBase extends MultiPageEditorPart implements I
     @Override
     public void doSave(IProgressMonitor monitor) {
         graphPage.doSave(monitor);
-        GEFImageHelper.save(getGraphicalViewer(), definition, getGraphImagePath());
+        ImageData graphImageData = GEFImageHelper.paint(getGraphicalViewer(), definition);
+        boolean saved = false;
         try {
             ProcessDefinitionValidator.validateDefinition(definition);
             WorkspaceOperations.saveProcessDefinition(definition);
             getCommandStack().markSaveLocation();
             definition.setDirty(false);
-            ProcessSaveHistory.addSavepoint(definitionFile);
+            saved = true;
         } catch (Exception e) {
             PluginLogger.logError(e);
         }
@@ -293,6 +301,63 @@ public abstract class ProcessEditorBase extends MultiPageEditorPart implements I
         } catch (CoreException e) {
             PluginLogger.logErrorWithoutDialog("Cleaning unused form files", e);
         }
+        scheduleSaveJob(graphImageData, saved);
+    }
+
+    /**
+     * Image encoding and savepoint archiving do not depend on the model, so they are done in background. Jobs of the same process are run one
+     * by one, savepoint includes the image written by the same job. Jobs belong to the family of the process folder, code reading or copying the
+     * folder content or the save history should call {@link #joinSaveJobs(IContainer)}. Closing the editor does not wait for the job.
+     */
+    private void scheduleSaveJob(final ImageData graphImageData, final boolean addSavepoint) {
+        final IFile graphImageFile = getGraphImageFile();
+        final IContainer processFolder = definitionFile.getParent();
+        Job job = new Job(Localization.getString("ProcessEditorBase.saveJob", definition.getName())) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                if (graphImageData != null) {
+                    try {
+                        GEFImageHelper.write(graphImageData, graphImageFile.getRawLocation().toOSString(), SWT.IMAGE_PNG);
+                        // image is written through java.io
+                        graphImageFile.refreshLocal(IResource.DEPTH_ZERO, monitor);
+                    } catch (Exception e) {
+                        PluginLogger.logErrorWithoutDialog("graphimage: saving failed", e);
+                    }
+                }
+                if (addSavepoint) {
+                    try {
+                        ProcessSaveHistory.addSavepoint(definitionFile);
+                    } catch (Exception e) {
+                        PluginLogger.logErrorWithoutDialog("Unable to add savepoint for " + definitionFile, e);
+                    }
+                }
+                return Status.OK_STATUS;
+            }
+
+            @Override
+            public boolean belongsTo(Object family) {
+                return processFolder.equals(family);
+            }
+        };
+        job.setRule(processFolder);
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    /**
+     * Waits for background save jobs of the process, so the graph image and the savepoint of the last save are written.
+     */
+    public static void joinSaveJobs(IContainer processFolder) {
+        ISchedulingRule currentRule = Job.getJobManager().currentRule();
+        if (currentRule != null && currentRule.isConflicting(processFolder)) {
+            // job waits for the rule held by this thread, e.g. editor is closed on process folder deletion
+            return;
+        }
+        try {
+            Job.getJobManager().join(processFolder, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public IFile getDefinitionFile() {
@@ -333,14 +398,13 @@ public abstract class ProcessEditorBase extends MultiPageEditorPart implements I
         super.pageChange(newPageIndex);
     }
 
-    private String getGraphImagePath() {
+    private IFile getGraphImageFile() {
         IFile file = ((FileEditorInput) getEditorInput()).getFile();
         String fileName = ParContentProvider.PROCESS_IMAGE_FILE_NAME;
         if (definition instanceof SubprocessDefinition) {
             fileName = definition.getId() + "." + fileName;
         }
-        IFile imageFile = IOUtils.getAdjacentFile(file, fileName);
-        return imageFile.getRawLocation().toOSString();
+        return IOUtils.getAdjacentFile(file, fileName);
     }
 
     private void fetchUsedFormFiles(Set<String> usedFormFiles, ProcessDefinition processDefinition) {
@@ -5,12 +5,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -28,8 +28,9 @@ public class ProcessSaveHistory {
 
     private static final String FOLDER_NAME = "processSaveHistory";
     private static final String SAVEPOINT_EXTENSION = ".par";
-    private static final DateFormat SAVEPOINT_SUFFIX_FORMAT = new SimpleDateFormat("yyyyMMddHHmmss");
-    private static final DateFormat SAVEPOINT_LABEL_FORMAT = new SimpleDateFormat("yyyy-MM-dd  HH:mm:ss");
+    // savepoints are added in background jobs, formatters are thread safe
+    private static final DateTimeFormatter SAVEPOINT_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter SAVEPOINT_LABEL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd  HH:mm:ss");
 
     public static boolean isActive() {
         return Activator.getPrefBoolean(PrefConstants.P_PROCESS_SAVE_HISTORY);
@@ -49,8 +50,10 @@ public class ProcessSaveHistory {
                 }
             }
             String outputFileName = historyFolder + File.separator + processDefinitionFile.getParent().getName() + '_'
-                    + SAVEPOINT_SUFFIX_FORMAT.format(new Date()) + SAVEPOINT_EXTENSION;
-            new ParExportOperation(resourcesToExport, new FileOutputStream(outputFileName)).run(null);
+                    + SAVEPOINT_SUFFIX_FORMAT.format(LocalDateTime.now()) + SAVEPOINT_EXTENSION;
+            try (OutputStream os = new FileOutputStream(outputFileName)) {
+                new ParExportOperation(resourcesToExport, os).run(null);
+            }
             File[] savepoints = historyFolder.listFiles();
             if (savepoints != null) {
                 int savepointNumber = Activator.getDefault().getPreferenceStore().getInt(PrefConstants.P_PROCESS_SAVEPOINT_NUMBER);
@@ -75,9 +78,9 @@ public class ProcessSaveHistory {
                 try {
                     String label = savepoint.getName();
                     label = label.substring(label.lastIndexOf('_') + 1, label.length() - SAVEPOINT_EXTENSION.length());
-                    Date date = SAVEPOINT_SUFFIX_FORMAT.parse(label);
+                    LocalDateTime date = LocalDateTime.parse(label, SAVEPOINT_SUFFIX_FORMAT);
                     savepoints.put(SAVEPOINT_LABEL_FORMAT.format(date), savepoint);
-                } catch (ParseException e) {
+                } catch (DateTimeParseException e) {
                     PluginLogger.logError("Unable parse savepoint suffix", e);
                 }
             }
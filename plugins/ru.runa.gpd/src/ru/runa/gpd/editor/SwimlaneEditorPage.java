@@ -50,11 +50,12 @@ import ru.runa.gpd.ui.custom.DragAndDropAdapter;
 import ru.runa.gpd.ui.custom.LoggingSelectionAdapter;
 import ru.runa.gpd.ui.custom.TableViewerLocalDragAndDropSupport;
 import ru.runa.gpd.ui.dialog.UpdateSwimlaneNameDialog;
+import ru.runa.gpd.util.CompositePropertyChangeListener;
 import ru.runa.gpd.util.IOUtils;
 import ru.runa.gpd.util.SwimlaneDisplayMode;
 import ru.runa.gpd.util.WorkspaceOperations;
 
-public class SwimlaneEditorPage extends EditorPartBase<Swimlane> {
+public class SwimlaneEditorPage extends EditorPartBase<Swimlane> implements CompositePropertyChangeListener {
 
     private TableViewer tableViewer;
     private Button createButton;
@@ -127,6 +128,9 @@ public class SwimlaneEditorPage extends EditorPartBase<Swimlane> {
 
     @Override
     public void propertyChange(PropertyChangeEvent event) {
+        if (dispatchCompositeEvent(event)) {
+            return;
+        }
         String type = event.getPropertyName();
         if (PropertyNames.PROPERTY_CHILDREN_CHANGED.equals(type)) {
             updateViewer();
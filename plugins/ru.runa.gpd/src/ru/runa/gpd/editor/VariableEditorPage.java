@@ -56,11 +56,12 @@ import ru.runa.gpd.ui.dialog.ErrorDialog;
 import ru.runa.gpd.ui.dialog.UpdateVariableNameDialog;
 import ru.runa.gpd.ui.wizard.CompactWizardDialog;
 import ru.runa.gpd.ui.wizard.VariableWizard;
+import ru.runa.gpd.util.CompositePropertyChangeListener;
 import ru.runa.gpd.util.VariableUtils;
 import ru.runa.gpd.util.VariablesUsageXlsExporter;
 import ru.runa.gpd.util.WorkspaceOperations;
 
-public class VariableEditorPage extends EditorPartBase<Variable> {
+public class VariableEditorPage extends EditorPartBase<Variable> implements CompositePropertyChangeListener {
 
     private TableViewer tableViewer;
     private Button searchButton;
@@ -146,6 +147,9 @@ public class VariableEditorPage extends EditorPartBase<Variable> {
 
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
+        if (dispatchCompositeEvent(evt)) {
+            return;
+        }
         String type = evt.getPropertyName();
         if (PropertyNames.PROPERTY_CHILDREN_CHANGED.equals(type)) {
             updateViewer();
@@ -33,6 +33,22 @@ public class GEFImageHelper {
     }
 
     public static void save(GraphicalViewer viewer, ProcessDefinition definition, String filePath, int imageFormat) {
+        ImageData data = paint(viewer, definition);
+        if (data != null) {
+            try {
+                write(data, filePath, imageFormat);
+            } catch (Exception e) {
+                PluginLogger.logError("graphimage: saving failed", e);
+            }
+        }
+    }
+
+    /**
+     * Paints the diagram, must be called in UI thread.
+     * 
+     * @return image data or <code>null</code> if painting failed
+     */
+    public static ImageData paint(GraphicalViewer viewer, ProcessDefinition definition) {
         // we remove the selection in order to generate valid graph picture
         viewer.deselectAll();
         viewer.flush();
@@ -48,16 +64,11 @@ public class GEFImageHelper {
             g = new SWTGraphics(gc);
             g.translate(r.x * -1, r.y * -1);
             figure.paint(g);
-            ImageLoader imageLoader = new ImageLoader();
-            if (BUG70949_WORKAROUND) {
-                imageLoader.data = new ImageData[] { downSample(image) };
-            } else {
-                imageLoader.data = new ImageData[] { image.getImageData() };
-            }
-            imageLoader.save(filePath, imageFormat);
             definition.setConstraint(r);
+            return image.getImageData();
         } catch (Exception e) {
             PluginLogger.logError("graphimage: saving failed", e);
+            return null;
         } finally {
             if (g != null) {
                 g.dispose();
@@ -71,8 +82,16 @@ public class GEFImageHelper {
         }
     }
 
-    private static ImageData downSample(Image image) {
-        ImageData data = image.getImageData();
+    /**
+     * Encodes and writes painted image, does not require UI thread.
+     */
+    public static void write(ImageData data, String filePath, int imageFormat) {
+        ImageLoader imageLoader = new ImageLoader();
+        imageLoader.data = new ImageData[] { BUG70949_WORKAROUND ? downSample(data) : data };
+        imageLoader.save(filePath, imageFormat);
+    }
+
+    private static ImageData downSample(ImageData data) {
         if (!data.palette.isDirect && data.depth <= 8) {
             return data;
         }
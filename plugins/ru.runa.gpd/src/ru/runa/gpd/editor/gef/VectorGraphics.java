@@ -0,0 +1,852 @@
+package ru.runa.gpd.editor.gef;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import org.eclipse.draw2d.FigureUtilities;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.LayerConstants;
+import org.eclipse.gef.editparts.LayerManager;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontMetrics;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.LineAttributes;
+import org.eclipse.swt.graphics.Path;
+import org.eclipse.swt.graphics.PathData;
+import org.eclipse.swt.graphics.Pattern;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.TextLayout;
+import org.eclipse.swt.widgets.Display;
+
+import com.google.common.collect.Lists;
+
+/**
+ * draw2d graphics which records painted figures as vector shapes (paths, images) in absolute coordinates. Text is recorded as glyph outlines so
+ * the result does not depend on fonts available to the consumer. Recorded shapes can be replayed to any number of {@link Canvas}es, e.g. to
+ * each page of tiled PDF.
+ */
+public class VectorGraphics extends Graphics {
+    private final Display display = Display.getDefault();
+    private final int width;
+    private final int height;
+    private final List<Shape> shapes = Lists.newArrayList();
+    // same image is painted many times (icons), it is converted once
+    private final Map<Image, ImageData> imageDatas = new IdentityHashMap<>();
+    private final Stack<State> states = new Stack<>();
+    private State state = new State();
+
+    public VectorGraphics(int width, int height) {
+        this.width = width;
+        this.height = height;
+        state.clip = new float[] { 0, 0, width, height };
+        state.font = display.getSystemFont();
+        state.foreground = display.getSystemColor(SWT.COLOR_BLACK);
+        state.background = display.getSystemColor(SWT.COLOR_WHITE);
+    }
+
+    /**
+     * Records printable layers of graphical viewer.
+     */
+    public static VectorGraphics paint(GraphicalViewer viewer) {
+        // we remove the selection in order to generate valid graph picture
+        viewer.deselectAll();
+        viewer.flush();
+        LayerManager lm = (LayerManager) viewer.getEditPartRegistry().get(LayerManager.ID);
+        IFigure figure = lm.getLayer(LayerConstants.PRINTABLE_LAYERS);
+        Rectangle r = figure.getBounds().getCopy();
+        VectorGraphics graphics = new VectorGraphics(r.width, r.height);
+        graphics.translate(r.x * -1, r.y * -1);
+        figure.paint(graphics);
+        graphics.dispose();
+        return graphics;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void replay(Canvas canvas) throws IOException {
+        for (Shape shape : shapes) {
+            if (shape.imageData != null) {
+                canvas.drawImage(shape.imageData, shape.bounds, shape.clip);
+            } else if (shape.lineWidth < 0) {
+                canvas.fill(shape.path, shape.color, shape.alpha, shape.evenOdd, shape.clip);
+            } else {
+                canvas.stroke(shape.path, shape.color, shape.alpha, shape.lineWidth, shape.dash, shape.clip);
+            }
+        }
+    }
+
+    /**
+     * Converts SWT image to AWT one preserving transparency.
+     */
+    public static BufferedImage toBufferedImage(ImageData data) {
+        BufferedImage image = new BufferedImage(data.width, data.height, BufferedImage.TYPE_INT_ARGB);
+        ImageData mask = data.transparentPixel != -1 || data.maskData != null ? data.getTransparencyMask() : null;
+        for (int y = 0; y < data.height; y++) {
+            for (int x = 0; x < data.width; x++) {
+                RGB rgb = data.palette.getRGB(data.getPixel(x, y));
+                int alpha = data.alphaData != null ? data.getAlpha(x, y) : data.alpha != -1 ? data.alpha : 255;
+                if (mask != null && mask.getPixel(x, y) == 0) {
+                    alpha = 0;
+                }
+                image.setRGB(x, y, alpha << 24 | rgb.red << 16 | rgb.green << 8 | rgb.blue);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Target of recorded shapes. Coordinates are in diagram pixels, y axis goes down, clip is (x, y, width, height) or null.
+     */
+    public interface Canvas {
+
+        void fill(PathData path, RGB color, int alpha, boolean evenOdd, float[] clip) throws IOException;
+
+        void stroke(PathData path, RGB color, int alpha, float lineWidth, float[] dash, float[] clip) throws IOException;
+
+        void drawImage(ImageData imageData, float[] bounds, float[] clip) throws IOException;
+    }
+
+    private static class Shape {
+        private PathData path;
+        private RGB color;
+        private int alpha;
+        // negative for filled shapes
+        private float lineWidth = -1;
+        private boolean evenOdd;
+        private float[] dash;
+        private ImageData imageData;
+        private float[] bounds;
+        private float[] clip;
+    }
+
+    private static class State implements Cloneable {
+        // affine transform [a, b, c, d, tx, ty]: x' = a * x + c * y + tx, y' = b * x + d * y + ty
+        private double[] transform = { 1, 0, 0, 1, 0, 0 };
+        private float[] clip;
+        private Font font;
+        private Color foreground;
+        private Color background;
+        private int alpha = 255;
+        private int lineStyle = SWT.LINE_SOLID;
+        private float lineWidth = 1;
+        private float[] lineDash;
+        private int lineCap = SWT.CAP_FLAT;
+        private int lineJoin = SWT.JOIN_MITER;
+        private float lineMiterLimit = 10;
+        private int antialias = SWT.DEFAULT;
+        private int textAntialias = SWT.DEFAULT;
+        private int interpolation = SWT.DEFAULT;
+        private int fillRule = SWT.FILL_EVEN_ODD;
+        private boolean advanced;
+        private boolean xorMode;
+
+        @Override
+        protected State clone() {
+            try {
+                State state = (State) super.clone();
+                state.transform = transform.clone();
+                return state;
+            } catch (CloneNotSupportedException e) {
+                throw new InternalError(e.getMessage());
+            }
+        }
+    }
+
+    private void addPath(Path path, boolean fill) {
+        PathData data = transform(path.getPathData());
+        path.dispose();
+        Shape shape = new Shape();
+        shape.path = data;
+        shape.color = (fill ? state.background : state.foreground).getRGB();
+        shape.alpha = state.alpha;
+        shape.clip = state.clip;
+        shape.evenOdd = state.fillRule == SWT.FILL_EVEN_ODD;
+        if (!fill) {
+            shape.lineWidth = (float) (Math.max(state.lineWidth, 1) * getScale());
+            shape.dash = getDash();
+        }
+        shapes.add(shape);
+    }
+
+    private void addTextPath(Path path, RGB color) {
+        PathData data = transform(path.getPathData());
+        path.dispose();
+        Shape shape = new Shape();
+        shape.path = data;
+        shape.color = color;
+        shape.alpha = state.alpha;
+        shape.clip = state.clip;
+        shape.evenOdd = state.fillRule == SWT.FILL_EVEN_ODD;
+        shapes.add(shape);
+    }
+
+    private float[] getDash() {
+        float scale = (float) getScale();
+        float[] dash = state.lineDash;
+        float unit = Math.max(state.lineWidth, 1);
+        switch (state.lineStyle) {
+        case SWT.LINE_DASH:
+            dash = new float[] { 6 * unit, 2 * unit };
+            break;
+        case SWT.LINE_DOT:
+            dash = new float[] { unit, unit };
+            break;
+        case SWT.LINE_DASHDOT:
+            dash = new float[] { 6 * unit, 2 * unit, unit, 2 * unit };
+            break;
+        case SWT.LINE_DASHDOTDOT:
+            dash = new float[] { 6 * unit, 2 * unit, unit, 2 * unit, unit, 2 * unit };
+            break;
+        case SWT.LINE_CUSTOM:
+            break;
+        default:
+            dash = null;
+        }
+        if (dash == null) {
+            return null;
+        }
+        float[] result = new float[dash.length];
+        for (int i = 0; i < dash.length; i++) {
+            result[i] = dash[i] * scale;
+        }
+        return result;
+    }
+
+    private double getScale() {
+        double[] t = state.transform;
+        return Math.sqrt(Math.abs(t[0] * t[3] - t[1] * t[2]));
+    }
+
+    private PathData transform(PathData data) {
+        float[] points = new float[data.points.length];
+        double[] t = state.transform;
+        for (int i = 0; i < points.length; i += 2) {
+            float x = data.points[i];
+            float y = data.points[i + 1];
+            points[i] = (float) (t[0] * x + t[2] * y + t[4]);
+            points[i + 1] = (float) (t[1] * x + t[3] * y + t[5]);
+        }
+        PathData result = new PathData();
+        result.types = data.types;
+        result.points = points;
+        return result;
+    }
+
+    private float[] transformBounds(float x, float y, float w, float h) {
+        double[] t = state.transform;
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        float[] corners = { x, y, x + w, y, x, y + h, x + w, y + h };
+        for (int i = 0; i < corners.length; i += 2) {
+            float cx = (float) (t[0] * corners[i] + t[2] * corners[i + 1] + t[4]);
+            float cy = (float) (t[1] * corners[i] + t[3] * corners[i + 1] + t[5]);
+            minX = Math.min(minX, cx);
+            minY = Math.min(minY, cy);
+            maxX = Math.max(maxX, cx);
+            maxY = Math.max(maxY, cy);
+        }
+        return new float[] { minX, minY, maxX - minX, maxY - minY };
+    }
+
+    private static float[] intersect(float[] r1, float[] r2) {
+        if (r1 == null) {
+            return r2;
+        }
+        float x = Math.max(r1[0], r2[0]);
+        float y = Math.max(r1[1], r2[1]);
+        float right = Math.min(r1[0] + r1[2], r2[0] + r2[2]);
+        float bottom = Math.min(r1[1] + r1[3], r2[1] + r2[3]);
+        return new float[] { x, y, Math.max(0, right - x), Math.max(0, bottom - y) };
+    }
+
+    private void concatenate(double a, double b, double c, double d, double tx, double ty) {
+        double[] t = state.transform;
+        state.transform = new double[] { t[0] * a + t[2] * b, t[1] * a + t[3] * b, t[0] * c + t[2] * d, t[1] * c + t[3] * d,
+                t[0] * tx + t[2] * ty + t[4], t[1] * tx + t[3] * ty + t[5] };
+    }
+
+    private Path createPath() {
+        return new Path(display);
+    }
+
+    private Path createRoundRectanglePath(Rectangle r, int arcWidth, int arcHeight) {
+        Path path = createPath();
+        int aw = Math.min(arcWidth, r.width);
+        int ah = Math.min(arcHeight, r.height);
+        if (aw <= 0 || ah <= 0) {
+            path.addRectangle(r.x, r.y, r.width, r.height);
+            return path;
+        }
+        path.moveTo(r.x + aw / 2f, r.y);
+        path.addArc(r.x + r.width - aw, r.y, aw, ah, 90, -90);
+        path.addArc(r.x + r.width - aw, r.y + r.height - ah, aw, ah, 0, -90);
+        path.addArc(r.x, r.y + r.height - ah, aw, ah, 270, -90);
+        path.addArc(r.x, r.y, aw, ah, 180, -90);
+        path.close();
+        return path;
+    }
+
+    private Path createPolyPath(PointList points, boolean close) {
+        Path path = createPath();
+        int[] xy = points.toIntArray();
+        for (int i = 0; i < xy.length; i += 2) {
+            if (i == 0) {
+                path.moveTo(xy[i], xy[i + 1]);
+            } else {
+                path.lineTo(xy[i], xy[i + 1]);
+            }
+        }
+        if (close) {
+            path.close();
+        }
+        return path;
+    }
+
+    private void addText(String s, int x, int y, boolean fillBackground) {
+        String[] lines = s.replace("\t", "    ").split("\n", -1);
+        int lineHeight = FigureUtilities.getFontMetrics(state.font).getHeight();
+        for (int i = 0; i < lines.length; i++) {
+            addTextLine(lines[i], x, y + i * lineHeight, state.font, fillBackground);
+        }
+    }
+
+    private void addTextLine(String line, float x, float y, Font font, boolean fillBackground) {
+        if (line.isEmpty()) {
+            return;
+        }
+        if (fillBackground) {
+            org.eclipse.draw2d.geometry.Dimension extent = FigureUtilities.getTextExtents(line, font);
+            Path path = createPath();
+            path.addRectangle(x, y, extent.width, extent.height);
+            addPath(path, true);
+        }
+        Path path = createPath();
+        path.addString(line, x, y, font);
+        addTextPath(path, state.foreground.getRGB());
+    }
+
+    @Override
+    public void clipRect(Rectangle r) {
+        state.clip = intersect(state.clip, transformBounds(r.x, r.y, r.width, r.height));
+    }
+
+    @Override
+    public void setClip(Rectangle r) {
+        state.clip = transformBounds(r.x, r.y, r.width, r.height);
+    }
+
+    @Override
+    public void setClip(Path path) {
+        float[] bounds = new float[4];
+        path.getBounds(bounds);
+        state.clip = transformBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    @Override
+    public void clipPath(Path path) {
+        float[] bounds = new float[4];
+        path.getBounds(bounds);
+        state.clip = intersect(state.clip, transformBounds(bounds[0], bounds[1], bounds[2], bounds[3]));
+    }
+
+    @Override
+    public Rectangle getClip(Rectangle rect) {
+        double[] t = state.transform;
+        double det = t[0] * t[3] - t[1] * t[2];
+        float[] c = state.clip;
+        if (det == 0 || c == null) {
+            rect.setBounds(0, 0, width, height);
+            return rect;
+        }
+        // inverse transform of clip corners
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        float[] corners = { c[0], c[1], c[0] + c[2], c[1], c[0], c[1] + c[3], c[0] + c[2], c[1] + c[3] };
+        for (int i = 0; i < corners.length; i += 2) {
+            double dx = corners[i] - t[4];
+            double dy = corners[i + 1] - t[5];
+            double x = (t[3] * dx - t[2] * dy) / det;
+            double y = (-t[1] * dx + t[0] * dy) / det;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        rect.setBounds((int) Math.floor(minX), (int) Math.floor(minY), (int) Math.ceil(maxX - Math.floor(minX)),
+                (int) Math.ceil(maxY - Math.floor(minY)));
+        return rect;
+    }
+
+    @Override
+    public void dispose() {
+        states.clear();
+    }
+
+    @Override
+    public void drawArc(int x, int y, int w, int h, int offset, int length) {
+        Path path = createPath();
+        path.addArc(x, y, w, h, offset, length);
+        addPath(path, false);
+    }
+
+    @Override
+    public void fillArc(int x, int y, int w, int h, int offset, int length) {
+        Path path = createPath();
+        path.moveTo(x + w / 2f, y + h / 2f);
+        path.addArc(x, y, w, h, offset, length);
+        path.close();
+        addPath(path, true);
+    }
+
+    @Override
+    public void drawFocus(int x, int y, int w, int h) {
+        // focus is not exported
+    }
+
+    @Override
+    public void drawImage(Image srcImage, int x, int y) {
+        org.eclipse.swt.graphics.Rectangle bounds = srcImage.getBounds();
+        drawImage(srcImage, 0, 0, bounds.width, bounds.height, x, y, bounds.width, bounds.height);
+    }
+
+    @Override
+    public void drawImage(Image srcImage, int x1, int y1, int w1, int h1, int x2, int y2, int w2, int h2) {
+        ImageData imageData = imageDatas.get(srcImage);
+        if (imageData == null) {
+            imageData = srcImage.getImageData();
+            imageDatas.put(srcImage, imageData);
+        }
+        if (x1 != 0 || y1 != 0 || w1 != imageData.width || h1 != imageData.height) {
+            imageData = crop(imageData, x1, y1, w1, h1);
+        }
+        Shape shape = new Shape();
+        shape.imageData = imageData;
+        shape.bounds = transformBounds(x2, y2, w2, h2);
+        shape.clip = state.clip;
+        shapes.add(shape);
+    }
+
+    /**
+     * Copies image region keeping pixels, alpha and transparency mask as is.
+     */
+    private static ImageData crop(ImageData data, int x, int y, int w, int h) {
+        ImageData result = new ImageData(w, h, data.depth, data.palette);
+        int[] pixels = new int[w];
+        for (int row = 0; row < h; row++) {
+            data.getPixels(x, y + row, w, pixels, 0);
+            result.setPixels(0, row, w, pixels, 0);
+        }
+        result.transparentPixel = data.transparentPixel;
+        result.alpha = data.alpha;
+        if (data.alphaData != null) {
+            result.alphaData = new byte[w * h];
+            for (int row = 0; row < h; row++) {
+                System.arraycopy(data.alphaData, (y + row) * data.width + x, result.alphaData, row * w, w);
+            }
+        }
+        if (data.maskData != null) {
+            ImageData mask = data.getTransparencyMask();
+            ImageData resultMask = new ImageData(w, h, 1, mask.palette);
+            for (int row = 0; row < h; row++) {
+                mask.getPixels(x, y + row, w, pixels, 0);
+                resultMask.setPixels(0, row, w, pixels, 0);
+            }
+            result.maskData = resultMask.data;
+            result.maskPad = resultMask.scanlinePad;
+        }
+        return result;
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        Path path = createPath();
+        path.moveTo(x1, y1);
+        path.lineTo(x2, y2);
+        addPath(path, false);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        Path path = createPath();
+        path.addArc(x, y, w, h, 0, 360);
+        addPath(path, false);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        Path path = createPath();
+        path.addArc(x, y, w, h, 0, 360);
+        addPath(path, true);
+    }
+
+    @Override
+    public void drawPolygon(PointList points) {
+        addPath(createPolyPath(points, true), false);
+    }
+
+    @Override
+    public void fillPolygon(PointList points) {
+        addPath(createPolyPath(points, true), true);
+    }
+
+    @Override
+    public void drawPolyline(PointList points) {
+        addPath(createPolyPath(points, false), false);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int width, int height) {
+        Path path = createPath();
+        path.addRectangle(x, y, width, height);
+        addPath(path, false);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int width, int height) {
+        Path path = createPath();
+        path.addRectangle(x, y, width, height);
+        addPath(path, true);
+    }
+
+    @Override
+    public void drawRoundRectangle(Rectangle r, int arcWidth, int arcHeight) {
+        addPath(createRoundRectanglePath(r, arcWidth, arcHeight), false);
+    }
+
+    @Override
+    public void fillRoundRectangle(Rectangle r, int arcWidth, int arcHeight) {
+        addPath(createRoundRectanglePath(r, arcWidth, arcHeight), true);
+    }
+
+    @Override
+    public void fillGradient(int x, int y, int w, int h, boolean vertical) {
+        // gradient is approximated by background color
+        fillRectangle(x, y, w, h);
+    }
+
+    @Override
+    public void drawPath(Path path) {
+        Path copy = createPath();
+        copy.addPath(path);
+        addPath(copy, false);
+    }
+
+    @Override
+    public void fillPath(Path path) {
+        Path copy = createPath();
+        copy.addPath(path);
+        addPath(copy, true);
+    }
+
+    @Override
+    public void drawString(String s, int x, int y) {
+        addText(s, x, y, false);
+    }
+
+    @Override
+    public void drawText(String s, int x, int y) {
+        addText(s, x, y, false);
+    }
+
+    @Override
+    public void fillString(String s, int x, int y) {
+        addText(s, x, y, true);
+    }
+
+    @Override
+    public void fillText(String s, int x, int y) {
+        addText(s, x, y, true);
+    }
+
+    @Override
+    public void drawTextLayout(TextLayout layout, int x, int y, int selectionStart, int selectionEnd, Color selectionForeground,
+            Color selectionBackground) {
+        String text = layout.getText();
+        int[] offsets = layout.getLineOffsets();
+        for (int i = 0; i < layout.getLineCount(); i++) {
+            String line = text.substring(offsets[i], offsets[i + 1]).replaceAll("[\r\n]+$", "");
+            org.eclipse.swt.graphics.Rectangle lineBounds = layout.getLineBounds(i);
+            Font font = layout.getStyle(offsets[i]) != null && layout.getStyle(offsets[i]).font != null ? layout.getStyle(offsets[i]).font
+                    : layout.getFont() != null ? layout.getFont() : state.font;
+            addTextLine(line, x + lineBounds.x, y + lineBounds.y, font, false);
+        }
+    }
+
+    @Override
+    public Color getBackgroundColor() {
+        return state.background;
+    }
+
+    @Override
+    public void setBackgroundColor(Color rgb) {
+        state.background = rgb;
+    }
+
+    @Override
+    public Color getForegroundColor() {
+        return state.foreground;
+    }
+
+    @Override
+    public void setForegroundColor(Color rgb) {
+        state.foreground = rgb;
+    }
+
+    @Override
+    public void setBackgroundPattern(Pattern pattern) {
+        // patterns are approximated by background color
+    }
+
+    @Override
+    public void setForegroundPattern(Pattern pattern) {
+        // patterns are approximated by foreground color
+    }
+
+    @Override
+    public Font getFont() {
+        return state.font;
+    }
+
+    @Override
+    public void setFont(Font f) {
+        state.font = f;
+    }
+
+    @Override
+    public FontMetrics getFontMetrics() {
+        return FigureUtilities.getFontMetrics(state.font);
+    }
+
+    @Override
+    public int getLineStyle() {
+        return state.lineStyle;
+    }
+
+    @Override
+    public void setLineStyle(int style) {
+        state.lineStyle = style;
+    }
+
+    @Override
+    public int getLineWidth() {
+        return (int) state.lineWidth;
+    }
+
+    @Override
+    public void setLineWidth(int width) {
+        state.lineWidth = width;
+    }
+
+    @Override
+    public float getLineWidthFloat() {
+        return state.lineWidth;
+    }
+
+    @Override
+    public void setLineWidthFloat(float width) {
+        state.lineWidth = width;
+    }
+
+    @Override
+    public void setLineDash(int[] dash) {
+        float[] floatDash = null;
+        if (dash != null) {
+            floatDash = new float[dash.length];
+            for (int i = 0; i < dash.length; i++) {
+                floatDash[i] = dash[i];
+            }
+        }
+        setLineDash(floatDash);
+    }
+
+    @Override
+    public void setLineDash(float[] dash) {
+        state.lineDash = dash;
+        state.lineStyle = dash != null ? SWT.LINE_CUSTOM : SWT.LINE_SOLID;
+    }
+
+    @Override
+    public int getLineCap() {
+        return state.lineCap;
+    }
+
+    @Override
+    public void setLineCap(int cap) {
+        state.lineCap = cap;
+    }
+
+    @Override
+    public int getLineJoin() {
+        return state.lineJoin;
+    }
+
+    @Override
+    public void setLineJoin(int join) {
+        state.lineJoin = join;
+    }
+
+    @Override
+    public float getLineMiterLimit() {
+        return state.lineMiterLimit;
+    }
+
+    @Override
+    public void setLineMiterLimit(float miterLimit) {
+        state.lineMiterLimit = miterLimit;
+    }
+
+    @Override
+    public LineAttributes getLineAttributes() {
+        return new LineAttributes(state.lineWidth, state.lineCap, state.lineJoin, state.lineStyle, state.lineDash, 0, state.lineMiterLimit);
+    }
+
+    @Override
+    public void setLineAttributes(LineAttributes attributes) {
+        state.lineWidth = attributes.width;
+        state.lineCap = attributes.cap;
+        state.lineJoin = attributes.join;
+        state.lineStyle = attributes.style;
+        state.lineDash = attributes.dash;
+        state.lineMiterLimit = attributes.miterLimit;
+    }
+
+    @Override
+    public int getAlpha() {
+        return state.alpha;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        state.alpha = alpha;
+    }
+
+    @Override
+    public int getAntialias() {
+        return state.antialias;
+    }
+
+    @Override
+    public void setAntialias(int value) {
+        state.antialias = value;
+    }
+
+    @Override
+    public int getTextAntialias() {
+        return state.textAntialias;
+    }
+
+    @Override
+    public void setTextAntialias(int value) {
+        state.textAntialias = value;
+    }
+
+    @Override
+    public int getInterpolation() {
+        return state.interpolation;
+    }
+
+    @Override
+    public void setInterpolation(int interpolation) {
+        state.interpolation = interpolation;
+    }
+
+    @Override
+    public int getFillRule() {
+        return state.fillRule;
+    }
+
+    @Override
+    public void setFillRule(int rule) {
+        state.fillRule = rule;
+    }
+
+    @Override
+    public boolean getAdvanced() {
+        return state.advanced;
+    }
+
+    @Override
+    public void setAdvanced(boolean advanced) {
+        state.advanced = advanced;
+    }
+
+    @Override
+    public boolean getXORMode() {
+        return state.xorMode;
+    }
+
+    @Override
+    public void setXORMode(boolean b) {
+        state.xorMode = b;
+    }
+
+    @Override
+    public void pushState() {
+        states.push(state.clone());
+    }
+
+    @Override
+    public void popState() {
+        state = states.pop();
+    }
+
+    @Override
+    public void restoreState() {
+        state = states.peek().clone();
+    }
+
+    @Override
+    public void translate(int dx, int dy) {
+        concatenate(1, 0, 0, 1, dx, dy);
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        concatenate(1, 0, 0, 1, dx, dy);
+    }
+
+    @Override
+    public void scale(double amount) {
+        concatenate(amount, 0, 0, amount, 0, 0);
+    }
+
+    @Override
+    public void scale(float horizontal, float vertical) {
+        concatenate(horizontal, 0, 0, vertical, 0, 0);
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        concatenate(cos, sin, -sin, cos, 0, 0);
+    }
+
+    @Override
+    public void shear(float horz, float vert) {
+        concatenate(1, vert, horz, 1, 0, 0);
+    }
+
+}
@@ -0,0 +1,186 @@
+package ru.runa.gpd.editor.graphiti;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.graph.CompoundDirectedGraph;
+import org.eclipse.draw2d.graph.CompoundDirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Subgraph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import ru.runa.gpd.editor.GEFConstants;
+import ru.runa.gpd.lang.NodeTypeDefinition;
+import ru.runa.gpd.lang.model.GraphElement;
+import ru.runa.gpd.lang.model.Node;
+import ru.runa.gpd.lang.model.ProcessDefinition;
+import ru.runa.gpd.lang.model.Transition;
+
+/**
+ * Layered layout of the whole process graph based on draw2d {@link CompoundDirectedGraphLayout}. Swimlanes and other containers are laid out
+ * as subgraphs, transitions get bendpoints from routed edges. Nodes attached to other nodes (boundary events) keep their relative position.
+ * Transitions which are not routed by the layout (self loops, transitions of attached nodes) are moved together with their source node.
+ *
+ * Graph is built and results are applied in UI thread, {@link #layout()} can be called from background job.
+ */
+public class AutoLayout implements GEFConstants {
+    private final ProcessDefinition definition;
+    private final CompoundDirectedGraph graph = new CompoundDirectedGraph();
+    private final Map<GraphElement, org.eclipse.draw2d.graph.Node> layoutNodes = Maps.newLinkedHashMap();
+    private final Map<Transition, Edge> layoutEdges = Maps.newLinkedHashMap();
+    private final List<Transition> transitions = Lists.newArrayList();
+    private final Map<GraphElement, Rectangle> oldConstraints = Maps.newHashMap();
+    private final Map<Transition, List<Point>> oldBendpoints = Maps.newHashMap();
+    private final Map<org.eclipse.draw2d.graph.Node, Point> oldLocations = Maps.newHashMap();
+
+    public AutoLayout(ProcessDefinition definition) {
+        this.definition = definition;
+        graph.setDefaultPadding(new Insets(2 * GRID_SIZE));
+        for (Node node : definition.getChildrenRecursive(Node.class)) {
+            if (!(node.getParentContainer() instanceof Node)) {
+                org.eclipse.draw2d.graph.Node layoutNode = new org.eclipse.draw2d.graph.Node(node, getSubgraph(node.getParentContainer()));
+                Dimension size = getSize(node);
+                layoutNode.width = size.width;
+                layoutNode.height = size.height;
+                graph.nodes.add(layoutNode);
+                layoutNodes.put(node, layoutNode);
+                if (node.getConstraint() != null) {
+                    oldLocations.put(layoutNode, getAbsoluteLocation(node));
+                }
+            }
+        }
+        for (Transition transition : definition.getChildrenRecursive(Transition.class)) {
+            transitions.add(transition);
+            oldBendpoints.put(transition, Lists.newArrayList(transition.getBendpoints()));
+            org.eclipse.draw2d.graph.Node source = getLayoutNode(transition.getSource());
+            org.eclipse.draw2d.graph.Node target = getLayoutNode(transition.getTarget());
+            if (source != null && target != null && source != target) {
+                Edge edge = new Edge(transition, source, target);
+                graph.edges.add(edge);
+                layoutEdges.put(transition, edge);
+            }
+        }
+    }
+
+    public void layout() {
+        if (!graph.nodes.isEmpty()) {
+            new CompoundDirectedGraphLayout().visit(graph);
+        }
+    }
+
+    /**
+     * Writes calculated constraints and bendpoints to the model.
+     */
+    public void apply() {
+        for (Map.Entry<GraphElement, org.eclipse.draw2d.graph.Node> entry : layoutNodes.entrySet()) {
+            org.eclipse.draw2d.graph.Node layoutNode = entry.getValue();
+            Rectangle constraint = new Rectangle(layoutNode.x, layoutNode.y, layoutNode.width, layoutNode.height);
+            // constraint is relative to the parent container
+            if (layoutNode.getParent() != null) {
+                constraint.translate(-layoutNode.getParent().x, -layoutNode.getParent().y);
+            }
+            if (!oldConstraints.containsKey(entry.getKey())) {
+                oldConstraints.put(entry.getKey(), entry.getKey().getConstraint());
+            }
+            entry.getKey().setConstraint(constraint);
+        }
+        for (Transition transition : transitions) {
+            List<Point> bendpoints = Lists.newArrayList();
+            Edge edge = layoutEdges.get(transition);
+            if (edge == null) {
+                org.eclipse.draw2d.graph.Node source = getLayoutNode(transition.getSource());
+                Point oldLocation = oldLocations.get(source);
+                if (oldLocation == null) {
+                    continue;
+                }
+                Dimension delta = new Point(source.x, source.y).getDifference(oldLocation);
+                for (Point bendpoint : oldBendpoints.get(transition)) {
+                    bendpoints.add(bendpoint.getTranslated(delta));
+                }
+            } else if (edge.getPoints() != null) {
+                PointList points = edge.getPoints();
+                for (int i = 1; i < points.size() - 1; i++) {
+                    bendpoints.add(points.getPoint(i));
+                }
+            }
+            transition.setBendpoints(bendpoints);
+        }
+    }
+
+    /**
+     * Restores model constraints and bendpoints changed by {@link #apply()}.
+     */
+    public void restore() {
+        for (Map.Entry<GraphElement, Rectangle> entry : oldConstraints.entrySet()) {
+            entry.getKey().setConstraint(entry.getValue());
+        }
+        for (Map.Entry<Transition, List<Point>> entry : oldBendpoints.entrySet()) {
+            entry.getKey().setBendpoints(Lists.newArrayList(entry.getValue()));
+        }
+    }
+
+    /**
+     * @return laid out elements, containers go before their children
+     */
+    public List<GraphElement> getElements() {
+        return Lists.newArrayList(layoutNodes.keySet());
+    }
+
+    public List<Transition> getTransitions() {
+        return transitions;
+    }
+
+    private Subgraph getSubgraph(GraphElement container) {
+        if (container == null || container == definition) {
+            return null;
+        }
+        org.eclipse.draw2d.graph.Node subgraph = layoutNodes.get(container);
+        if (subgraph == null) {
+            subgraph = new Subgraph(container, getSubgraph(container.getParentContainer()));
+            ((Subgraph) subgraph).insets = new Insets(2 * GRID_SIZE, GRID_SIZE, GRID_SIZE, GRID_SIZE);
+            graph.nodes.add(subgraph);
+            layoutNodes.put(container, subgraph);
+        }
+        return (Subgraph) subgraph;
+    }
+
+    private org.eclipse.draw2d.graph.Node getLayoutNode(GraphElement element) {
+        while (element != null) {
+            org.eclipse.draw2d.graph.Node layoutNode = layoutNodes.get(element);
+            if (layoutNode != null) {
+                return layoutNode instanceof Subgraph ? null : layoutNode;
+            }
+            element = element.getParentContainer();
+        }
+        return null;
+    }
+
+    private Point getAbsoluteLocation(GraphElement element) {
+        Point location = element.getConstraint().getLocation();
+        for (GraphElement container = element.getParentContainer(); container != null && container != definition; container = container
+                .getParentContainer()) {
+            if (container.getConstraint() != null) {
+                location.translate(container.getConstraint().getLocation());
+            }
+        }
+        return location;
+    }
+
+        private Dimension getSize(GraphElement element) {
+        if (element.getConstraint() != null) {
+            return element.getConstraint().getSize();
+        }
+        NodeTypeDefinition typeDefinition = element.getTypeDefinition();
+        if (typeDefinition != null && typeDefinition.getGraphitiEntry() != null) {
+            return typeDefinition.getGraphitiEntry().getDefaultSize();
+        }
+        return new Dimension(10 * GRID_SIZE, 6 * GRID_SIZE);
+    }
+}
@@ -1,14 +1,23 @@
 package ru.runa.gpd.editor.graphiti;
 
-import com.google.common.base.Objects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.Transaction;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.impl.TransactionalEditingDomainImpl;
 import org.eclipse.emf.transaction.util.TransactionUtil;
 import org.eclipse.gef.LayerConstants;
 import org.eclipse.gef.commands.CommandStack;
@@ -16,7 +25,9 @@ import org.eclipse.gef.editparts.LayerManager;
 import org.eclipse.gef.editparts.ScalableFreeformRootEditPart;
 import org.eclipse.graphiti.features.IAddFeature;
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.ILayoutFeature;
 import org.eclipse.graphiti.features.IUpdateFeature;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.impl.AddConnectionContext;
 import org.eclipse.graphiti.features.context.impl.AddContext;
 import org.eclipse.graphiti.features.context.impl.AreaContext;
@@ -29,18 +40,22 @@ import org.eclipse.graphiti.mm.pictograms.Connection;
 import org.eclipse.graphiti.mm.pictograms.ConnectionDecorator;
 import org.eclipse.graphiti.mm.pictograms.ContainerShape;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.FreeFormConnection;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 import org.eclipse.graphiti.services.Graphiti;
 import org.eclipse.graphiti.ui.editor.DiagramBehavior;
 import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorSite;
 import org.eclipse.ui.PartInitException;
+import ru.runa.gpd.Localization;
 import ru.runa.gpd.PropertyNames;
 import ru.runa.gpd.editor.ProcessEditorBase;
 import ru.runa.gpd.editor.gef.GEFActionBarContributor;
+import ru.runa.gpd.editor.graphiti.add.AddActionFeature;
 import ru.runa.gpd.editor.graphiti.update.BOUpdateContext;
 import ru.runa.gpd.lang.model.Action;
 import ru.runa.gpd.lang.model.GraphElement;
@@ -51,11 +66,20 @@ import ru.runa.gpd.lang.model.SwimlanedNode;
 import ru.runa.gpd.lang.model.TaskState;
 import ru.runa.gpd.lang.model.Transition;
 import ru.runa.gpd.lang.model.bpmn.ExclusiveGateway;
+import ru.runa.gpd.util.EventSupport;
 
 public class DiagramEditorPage extends DiagramEditor implements PropertyChangeListener {
 
     private final ProcessEditorBase editor;
     private DiagramCreator diagramCreator;
+    // pictograms added by the last drawElements pass, saves full diagram scan per lookup in drawTransitions
+    private final Map<GraphElement, PictogramElement> drawnElements = Maps.newHashMap();
+    // business objects waiting for pictogram update, value is true when layout is needed too
+    private final Map<Object, Boolean> pendingUpdates = Maps.newLinkedHashMap();
+    private final Set<Swimlane> renamedSwimlanes = Sets.newHashSet();
+    private boolean updateScheduled;
+    private boolean ignoreModelEvents;
+    private boolean disposed;
 
     public DiagramEditorPage(ProcessEditorBase editor) {
         this.editor = editor;
@@ -72,49 +96,148 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
         return editor.getDefinition();
     }
 
+    /**
+     * Model events are coalesced: changed business objects are collected and their pictograms are updated at once. Changes made in a diagram
+     * transaction (features, undo and redo) update pictograms in that transaction, so they are undone together. Other changes are flushed on the
+     * next UI tick in a single command, which is executed only when some pictogram really needs an update.
+     */
     @Override
     public void propertyChange(PropertyChangeEvent event) {
-        PictogramElement pe = getDiagramTypeProvider().getFeatureProvider().getPictogramElementForBusinessObject(event.getSource());
-        // TODO unify event propagation to interested parties
-        if (pe != null) {
-            BOUpdateContext context = new BOUpdateContext(pe, event.getSource());
-            getDiagramTypeProvider().getFeatureProvider().updateIfPossibleAndNeeded(context);
-            if (PropertyNames.NODE_BOUNDS_RESIZED.equals(event.getPropertyName())) {
-                LayoutContext layoutContext = new LayoutContext(pe);
-                getDiagramTypeProvider().getFeatureProvider().layoutIfPossible(layoutContext);
-            }
-        } else if (event.getSource() instanceof Swimlane && PropertyNames.PROPERTY_NAME.equals(event.getPropertyName())) {
-            for (SwimlanedNode swimlanedNode : editor.getDefinition().getChildren(SwimlanedNode.class)) {
-                if (Objects.equal(swimlanedNode.getSwimlane(), event.getSource())) {
-                    pe = getDiagramTypeProvider().getFeatureProvider().getPictogramElementForBusinessObject(swimlanedNode);
-                    if (pe != null) {
-                        BOUpdateContext context = new BOUpdateContext(pe, swimlanedNode);
-                        getDiagramTypeProvider().getFeatureProvider().updateIfPossibleAndNeeded(context);
-                    }
-                }
-            }
+        if (ignoreModelEvents) {
+            return;
+        }
+        Object source = event.getSource();
+        if (source instanceof Swimlane && PropertyNames.PROPERTY_NAME.equals(event.getPropertyName())) {
+            renamedSwimlanes.add((Swimlane) source);
         }
-        if (event.getSource() instanceof Node) {
+        addPendingUpdate(source, PropertyNames.NODE_BOUNDS_RESIZED.equals(event.getPropertyName()));
+        if (source instanceof Node) {
             if (PropertyNames.PROPERTY_TIMER_DELAY.equals(event.getPropertyName())
                     || PropertyNames.NODE_LEAVING_TRANSITION_ADDED.equals(event.getPropertyName())
                     || PropertyNames.NODE_LEAVING_TRANSITION_REMOVED.equals(event.getPropertyName())) {
-                updateLeavingTransitions((Node) event.getSource());
+                for (Transition transition : ((Node) source).getLeavingTransitions()) {
+                    addPendingUpdate(transition, false);
+                }
             }
         }
+        if (isWriteTransactionActive()) {
+            flushUpdates();
+        } else if (!updateScheduled) {
+            updateScheduled = true;
+            Display.getDefault().asyncExec(new Runnable() {
+
+                @Override
+                public void run() {
+                    updateScheduled = false;
+                    flushUpdates();
+                }
+            });
+        }
+    }
+
+    private void addPendingUpdate(Object businessObject, boolean layout) {
+        if (layout || !pendingUpdates.containsKey(businessObject)) {
+            pendingUpdates.put(businessObject, layout);
+        }
     }
 
-    private void updateLeavingTransitions(Node node) {
-        for (Transition transition : node.getLeavingTransitions()) {
-            PictogramElement pe = getDiagramTypeProvider().getFeatureProvider().getPictogramElementForBusinessObject(transition);
+    private boolean isWriteTransactionActive() {
+        TransactionalEditingDomain domain = getEditingDomain();
+        if (!(domain instanceof TransactionalEditingDomainImpl)) {
+            return false;
+        }
+        Transaction transaction = ((TransactionalEditingDomainImpl) domain).getActiveTransaction();
+        return transaction != null && !transaction.isReadOnly();
+    }
+
+    private void flushUpdates() {
+        if (disposed || pendingUpdates.isEmpty()) {
+            pendingUpdates.clear();
+            renamedSwimlanes.clear();
+            return;
+        }
+        IFeatureProvider featureProvider = getDiagramTypeProvider().getFeatureProvider();
+        Map<PictogramElement, Object> businessObjects = Maps.newLinkedHashMap();
+        Set<PictogramElement> layouts = Sets.newHashSet();
+        ListMultimap<Swimlane, SwimlanedNode> swimlanedNodes = null;
+        for (Map.Entry<Object, Boolean> entry : pendingUpdates.entrySet()) {
+            PictogramElement pe = featureProvider.getPictogramElementForBusinessObject(entry.getKey());
             if (pe != null) {
-                BOUpdateContext context = new BOUpdateContext(pe, transition);
-                getDiagramTypeProvider().getFeatureProvider().updateIfPossibleAndNeeded(context);
+                businessObjects.put(pe, entry.getKey());
+                if (entry.getValue()) {
+                    layouts.add(pe);
+                }
+            } else if (renamedSwimlanes.contains(entry.getKey())) {
+                // swimlane is not drawn, its name is shown in nodes
+                if (swimlanedNodes == null) {
+                    swimlanedNodes = getSwimlanedNodes();
+                }
+                for (SwimlanedNode swimlanedNode : swimlanedNodes.get((Swimlane) entry.getKey())) {
+                    PictogramElement nodePe = featureProvider.getPictogramElementForBusinessObject(swimlanedNode);
+                    if (nodePe != null) {
+                        businessObjects.put(nodePe, swimlanedNode);
+                    }
+                }
             }
         }
+        pendingUpdates.clear();
+        renamedSwimlanes.clear();
+        final List<IContext> contexts = Lists.newArrayList();
+        for (Map.Entry<PictogramElement, Object> entry : businessObjects.entrySet()) {
+            BOUpdateContext context = new BOUpdateContext(entry.getKey(), entry.getValue());
+            IUpdateFeature updateFeature = featureProvider.getUpdateFeature(context);
+            if (updateFeature != null && updateFeature.canUpdate(context) && updateFeature.updateNeeded(context).toBoolean()) {
+                contexts.add(context);
+            }
+            if (layouts.contains(entry.getKey())) {
+                LayoutContext layoutContext = new LayoutContext(entry.getKey());
+                ILayoutFeature layoutFeature = featureProvider.getLayoutFeature(layoutContext);
+                if (layoutFeature != null && layoutFeature.canLayout(layoutContext)) {
+                    contexts.add(layoutContext);
+                }
+            }
+        }
+        if (contexts.isEmpty()) {
+            return;
+        }
+        if (isWriteTransactionActive()) {
+            applyUpdates(contexts);
+            return;
+        }
+        TransactionalEditingDomain domain = getEditingDomain();
+        domain.getCommandStack().execute(new RecordingCommand(domain) {
+            @Override
+            protected void doExecute() {
+                applyUpdates(contexts);
+            }
+        });
+        getDiagramBehavior().refreshContent();
+    }
+
+    private void applyUpdates(List<IContext> contexts) {
+        IFeatureProvider featureProvider = getDiagramTypeProvider().getFeatureProvider();
+        for (IContext context : contexts) {
+            if (context instanceof LayoutContext) {
+                featureProvider.getLayoutFeature((LayoutContext) context).layout((LayoutContext) context);
+            } else {
+                featureProvider.getUpdateFeature((BOUpdateContext) context).update((BOUpdateContext) context);
+            }
+        }
+    }
+
+    private ListMultimap<Swimlane, SwimlanedNode> getSwimlanedNodes() {
+        ListMultimap<Swimlane, SwimlanedNode> swimlanedNodes = ArrayListMultimap.create();
+        for (SwimlanedNode swimlanedNode : editor.getDefinition().getChildren(SwimlanedNode.class)) {
+            if (swimlanedNode.getSwimlane() != null) {
+                swimlanedNodes.put(swimlanedNode.getSwimlane(), swimlanedNode);
+            }
+        }
+        return swimlanedNodes;
     }
 
     @Override
     public void dispose() {
+        disposed = true;
         editor.getDefinition().unsetDelegatedListener(this);
         if (diagramCreator != null) {
             diagramCreator.disposeDiagram();
@@ -202,20 +325,35 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
     }
 
     private void refreshActions(Diagram diagram) {
-        refreshActions((ContainerShape) diagram);
+        final List<Shape> actionShapes = Lists.newArrayList();
+        collectActionShapes(diagram, actionShapes);
+        final List<ConnectionDecorator> actionDecorators = Lists.newArrayList();
         for (Connection connection : diagram.getConnections()) {
-            for (final ConnectionDecorator decorator : connection.getConnectionDecorators()) {
+            for (ConnectionDecorator decorator : connection.getConnectionDecorators()) {
                 if (PropertyUtil.hasProperty(decorator, GaProperty.CLASS, GaProperty.ACTION_ICON)) {
-                    TransactionalEditingDomain domain = TransactionUtil.getEditingDomain(decorator);
-                    domain.getCommandStack().execute(new RecordingCommand(domain) {
-                        @Override
-                        protected void doExecute() {
-                            decorator.setVisible(editor.getDefinition().isShowActions());
-                        }
-                    });
+                    actionDecorators.add(decorator);
                 }
             }
         }
+        if (!actionShapes.isEmpty() || !actionDecorators.isEmpty()) {
+            final boolean showActions = editor.getDefinition().isShowActions();
+            TransactionalEditingDomain domain = TransactionUtil.getEditingDomain(diagram);
+            domain.getCommandStack().execute(new RecordingCommand(domain) {
+                @Override
+                protected void doExecute() {
+                    for (Shape shape : actionShapes) {
+                        if (showActions) {
+                            shape.setVisible(GaProperty.TRUE.equals(Graphiti.getPeService().getPropertyValue(shape, GaProperty.ACTIVE)));
+                        } else {
+                            shape.setVisible(false);
+                        }
+                    }
+                    for (ConnectionDecorator decorator : actionDecorators) {
+                        decorator.setVisible(showActions);
+                    }
+                }
+            });
+        }
         getDiagramBehavior().refresh();
     }
 
@@ -244,23 +382,13 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
         getDiagramBehavior().refreshContent();
     }
 
-    private void refreshActions(ContainerShape containerShape) {
-        for (final Shape shape : containerShape.getChildren()) {
+    private void collectActionShapes(ContainerShape containerShape, List<Shape> actionShapes) {
+        for (Shape shape : containerShape.getChildren()) {
             if (PropertyUtil.hasProperty(shape, GaProperty.CLASS, GaProperty.ACTION_ICON)) {
-                TransactionalEditingDomain domain = TransactionUtil.getEditingDomain(shape);
-                domain.getCommandStack().execute(new RecordingCommand(domain) {
-                    @Override
-                    protected void doExecute() {
-                        if (editor.getDefinition().isShowActions()) {
-                            shape.setVisible(Graphiti.getPeService().getPropertyValue(shape, GaProperty.ACTIVE).equals(GaProperty.TRUE));
-                        } else {
-                            shape.setVisible(false);
-                        }
-                    }
-                });
+                actionShapes.add(shape);
             }
             if (shape instanceof ContainerShape) {
-                refreshActions((ContainerShape) shape);
+                collectActionShapes((ContainerShape) shape, actionShapes);
             }
         }
     }
@@ -271,6 +399,11 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
     }
 
     public void drawElements(ContainerShape parentShape, List<? extends GraphElement> graphElements) {
+        drawnElements.clear();
+        drawElementsRecursive(parentShape, graphElements);
+    }
+
+    private void drawElementsRecursive(ContainerShape parentShape, List<? extends GraphElement> graphElements) {
         IFeatureProvider featureProvider = getDiagramTypeProvider().getFeatureProvider();
         for (GraphElement graphElement : graphElements) {
             if (graphElement.getConstraint() == null) {
@@ -288,12 +421,15 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
             context.setLocation(graphElement.getConstraint().x, graphElement.getConstraint().y);
             if (addFeature.canAdd(context)) {
                 PictogramElement childContainer = addFeature.add(context);
+                if (childContainer != null && featureProvider.getBusinessObjectForPictogramElement(childContainer) == graphElement) {
+                    drawnElements.put(graphElement, childContainer);
+                }
                 if (graphElement instanceof TaskState) {
                     drawActions((ContainerShape) childContainer, graphElement);
                 }
                 List<GraphElement> children = getDefinition().getContainerElements(graphElement);
                 if (childContainer instanceof ContainerShape && children.size() > 0) {
-                    drawElements((ContainerShape) childContainer, children);
+                    drawElementsRecursive((ContainerShape) childContainer, children);
                 }
             }
         }
@@ -305,6 +441,7 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
             AddContext context = new AddContext(new AreaContext(), action);
             context.setNewObject(action);
             context.setTargetContainer(containerShape);
+            context.putProperty(AddActionFeature.SKIP_LAYOUT, Boolean.TRUE);
             IAddFeature addFeature = featureProvider.getAddFeature(context);
             if (addFeature != null) {
                 if (addFeature.canAdd(context)) {
@@ -315,6 +452,9 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
                 continue;
             }
         }
+        if (!actionOwner.getActions().isEmpty()) {
+            featureProvider.layoutIfPossible(new LayoutContext(containerShape));
+        }
     }
 
     public void drawActions(Connection containerShape, GraphElement actionOwner) {
@@ -323,6 +463,7 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
             AddContext context = new AddContext(new AreaContext(), action);
             context.setNewObject(action);
             context.setTargetConnection(containerShape);
+            context.putProperty(AddActionFeature.SKIP_LAYOUT, Boolean.TRUE);
             IAddFeature addFeature = featureProvider.getAddFeature(context);
             if (addFeature != null) {
                 if (addFeature.canAdd(context)) {
@@ -333,14 +474,16 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
                 continue;
             }
         }
+        if (containerShape != null && !actionOwner.getActions().isEmpty()) {
+            featureProvider.layoutIfPossible(new LayoutContext(containerShape));
+        }
     }
 
     public void drawTransitions(List<Transition> transitions) {
         for (Transition transition : transitions) {
             Anchor sourceAnchor = null;
             Anchor targetAnchor = null;
-            AnchorContainer sourceShape = (AnchorContainer) getDiagramTypeProvider().getFeatureProvider()
-                    .getPictogramElementForBusinessObject(transition.getSource());
+            AnchorContainer sourceShape = (AnchorContainer) getDrawnPictogramElement(transition.getSource());
             if (sourceShape == null) {
                 continue;
             }
@@ -351,8 +494,7 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
                     break;
                 }
             }
-            AnchorContainer targetShape = (AnchorContainer) getDiagramTypeProvider().getFeatureProvider()
-                    .getPictogramElementForBusinessObject(transition.getTarget());
+            AnchorContainer targetShape = (AnchorContainer) getDrawnPictogramElement(transition.getTarget());
             if (targetShape == null) {
                 continue;
             }
@@ -367,9 +509,88 @@ public class DiagramEditorPage extends DiagramEditor implements PropertyChangeLi
             addContext.setNewObject(transition);
             drawActions((Connection) getDiagramTypeProvider().getFeatureProvider().addIfPossible(addContext), transition);
         }
+        drawnElements.clear();
         setPictogramElementForSelection(null);
     }
 
+    private PictogramElement getDrawnPictogramElement(GraphElement graphElement) {
+        PictogramElement pe = drawnElements.get(graphElement);
+        // shape could be deleted after it was drawn
+        if (pe == null || pe.eContainer() == null) {
+            pe = getDiagramTypeProvider().getFeatureProvider().getPictogramElementForBusinessObject(graphElement);
+        }
+        return pe;
+    }
+
+    /**
+     * Applies calculated layout to the model and the diagram in one undoable command. Model notifications are not turned into pictogram updates
+     * there: pictograms are changed directly and reverted by the command itself, the model is reverted by {@link AutoLayout#restore()}.
+     */
+    public void applyAutoLayout(final AutoLayout autoLayout) {
+        getEditingDomain().getCommandStack().execute(new RecordingCommand(getEditingDomain(), Localization.getString("label.menu.properties.autoLayout")) {
+            @Override
+            protected void doExecute() {
+                changeWithoutPictogramUpdates(() -> {
+                    autoLayout.apply();
+                    IFeatureProvider featureProvider = getDiagramTypeProvider().getFeatureProvider();
+                    Diagram diagram = getDiagramTypeProvider().getDiagram();
+                    for (GraphElement element : autoLayout.getElements()) {
+                        PictogramElement pe = featureProvider.getPictogramElementForBusinessObject(element);
+                        if (pe != null) {
+                            Rectangle constraint = element.getConstraint();
+                            Graphiti.getGaService().setLocationAndSize(pe.getGraphicsAlgorithm(), constraint.x, constraint.y, constraint.width,
+                                    constraint.height);
+                            continue;
+                        }
+                        // elements without coordinates were not drawn before
+                        GraphElement parent = element.getParentContainer();
+                        PictogramElement parentPe = parent == null ? diagram : featureProvider.getPictogramElementForBusinessObject(parent);
+                        if (parentPe instanceof ContainerShape) {
+                            drawElements((ContainerShape) parentPe, Lists.newArrayList(element));
+                        }
+                    }
+                    List<Transition> undrawnTransitions = Lists.newArrayList();
+                    for (Transition transition : autoLayout.getTransitions()) {
+                        PictogramElement pe = featureProvider.getPictogramElementForBusinessObject(transition);
+                        if (pe instanceof FreeFormConnection) {
+                            FreeFormConnection connection = (FreeFormConnection) pe;
+                            connection.getBendpoints().clear();
+                            for (org.eclipse.draw2d.geometry.Point bendpoint : transition.getBendpoints()) {
+                                connection.getBendpoints().add(Graphiti.getGaService().createPoint(bendpoint.x, bendpoint.y));
+                            }
+                        } else if (pe == null) {
+                            undrawnTransitions.add(transition);
+                        }
+                    }
+                    drawTransitions(undrawnTransitions);
+                });
+            }
+
+            @Override
+            public void undo() {
+                super.undo();
+                changeWithoutPictogramUpdates(() -> autoLayout.restore());
+            }
+
+            @Override
+            public void redo() {
+                super.redo();
+                changeWithoutPictogramUpdates(() -> autoLayout.apply());
+            }
+        });
+        getDiagramBehavior().refresh();
+    }
+
+    private void changeWithoutPictogramUpdates(Runnable change) {
+        ignoreModelEvents = true;
+        try {
+            // other listeners get coalesced notifications
+            EventSupport.batch(change);
+        } finally {
+            ignoreModelEvents = false;
+        }
+    }
+
     @Override
     protected void initializeActionRegistry() {
         super.initializeActionRegistry();
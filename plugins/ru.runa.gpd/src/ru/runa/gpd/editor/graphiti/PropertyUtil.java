@@ -1,5 +1,13 @@
 package ru.runa.gpd.editor.graphiti;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.graphiti.mm.Property;
 import org.eclipse.graphiti.mm.PropertyContainer;
 import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
@@ -8,6 +16,7 @@ import org.eclipse.graphiti.mm.algorithms.Text;
 import org.eclipse.graphiti.mm.pictograms.Connection;
 import org.eclipse.graphiti.mm.pictograms.ConnectionDecorator;
 import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 
@@ -53,31 +62,43 @@ public class PropertyUtil {
         return null;
     }
 
+    /**
+     * Results are cached in {@link GaIndex} attached to the diagram of the pictogram element.
+     */
     public static <T extends GraphicsAlgorithm> T findGaRecursiveByName(PictogramElement pe, String name) {
+        EObject root = EcoreUtil.getRootContainer(pe);
+        if (!(root instanceof Diagram)) {
+            // element is not added to a diagram yet
+            return (T) searchGaRecursiveByName(pe, name);
+        }
+        return (T) GaIndex.get((Diagram) root).find(pe, name);
+    }
+
+    private static GraphicsAlgorithm searchGaRecursiveByName(PictogramElement pe, String name) {
         GraphicsAlgorithm ga = pe.getGraphicsAlgorithm();
         for (Property property : pe.getProperties()) {
             if (Objects.equal(GaProperty.ID, property.getKey()) && Objects.equal(name, property.getValue())) {
-                return (T) ga;
+                return ga;
             }
         }
         GraphicsAlgorithm result = findGaRecursiveByName(ga, name);
         if (result != null) {
-            return (T) result;
+            return result;
         }
         if (pe instanceof ContainerShape) {
             for (Shape shape : ((ContainerShape) pe).getChildren()) {
-                result = findGaRecursiveByName(shape, name);
+                result = searchGaRecursiveByName(shape, name);
                 if (result != null) {
-                    return (T) result;
+                    return result;
                 }
             }
         }
         if (pe instanceof Connection) {
             Connection connection = (Connection) pe;
             for (ConnectionDecorator connectionDecorator : connection.getConnectionDecorators()) {
-                result = findGaRecursiveByName(connectionDecorator, name);
+                result = searchGaRecursiveByName(connectionDecorator, name);
                 if (result != null) {
-                    return (T) result;
+                    return result;
                 }
             }
         }
@@ -131,4 +152,51 @@ public class PropertyUtil {
         return null;
     }
 
+    /**
+     * Lazily filled (pictogram element -> name -> graphics algorithm) index of a diagram. It is the only content adapter of this kind in the
+     * diagram and is cleared on any containment or property change there.
+     */
+    private static class GaIndex extends EContentAdapter {
+        private final Map<PictogramElement, Map<String, GraphicsAlgorithm>> gas = new HashMap<>();
+
+        private static GaIndex get(Diagram diagram) {
+            GaIndex index = (GaIndex) EcoreUtil.getExistingAdapter(diagram, GaIndex.class);
+            if (index == null) {
+                index = new GaIndex();
+                diagram.eAdapters().add(index);
+            }
+            return index;
+        }
+
+        private GraphicsAlgorithm find(PictogramElement pe, String name) {
+            Map<String, GraphicsAlgorithm> peGas = gas.get(pe);
+            if (peGas == null) {
+                peGas = new HashMap<>();
+                gas.put(pe, peGas);
+            }
+            if (peGas.containsKey(name)) {
+                return peGas.get(name);
+            }
+            GraphicsAlgorithm ga = searchGaRecursiveByName(pe, name);
+            peGas.put(name, ga);
+            return ga;
+        }
+
+        @Override
+        public boolean isAdapterForType(Object type) {
+            return type == GaIndex.class;
+        }
+
+        @Override
+        public void notifyChanged(Notification notification) {
+            super.notifyChanged(notification);
+            if (notification.isTouch()) {
+                return;
+            }
+            Object feature = notification.getFeature();
+            if (notification.getNotifier() instanceof Property || feature instanceof EReference && ((EReference) feature).isContainment()) {
+                gas.clear();
+            }
+        }
+    }
 }
@@ -2,8 +2,11 @@ package ru.runa.gpd.editor.graphiti;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.graphiti.mm.algorithms.styles.AdaptedGradientColoredAreas;
 import org.eclipse.graphiti.mm.algorithms.styles.Color;
 import org.eclipse.graphiti.mm.algorithms.styles.Font;
@@ -21,6 +24,8 @@ import org.eclipse.graphiti.util.ColorUtil;
 import org.eclipse.graphiti.util.IGradientType;
 import org.eclipse.graphiti.util.IPredefinedRenderingStyle;
 import org.eclipse.jface.preference.PreferenceConverter;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.RGB;
@@ -40,6 +45,18 @@ public class StyleUtil implements PrefConstants {
     public static final String TRANSITION_BPMN_NAME = "sequenceFlow";
     public static final String TEXT_ANNOTATION_BPMN_NAME = "textAnnotation";
     private static Map<String, StyleInitializer> initializers = new HashMap<>();
+    // resolved preference values by bpmn name and property name, cleared on any preference change
+    private static final Map<String, Object> preferenceValues = new ConcurrentHashMap<>();
+
+    static {
+        Activator.getDefault().getPreferenceStore().addPropertyChangeListener(new IPropertyChangeListener() {
+
+            @Override
+            public void propertyChange(PropertyChangeEvent event) {
+                preferenceValues.clear();
+            }
+        });
+    }
 
     public static Style getStateNodeOuterRectangleStyle(Diagram diagram, GraphElement graphElement) {
         String bpmnName = graphElement.getTypeDefinition().getBpmnElementName();
@@ -99,29 +116,55 @@ public class StyleUtil implements PrefConstants {
     }
 
     private static Style findOrCreateStyle(Diagram diagram, String styleId, StyleInitializer styleInitializer) {
-        for (Style style : diagram.getStyles()) {
-            if (styleId.equals(style.getId())) {
-                return style;
+        StyleRegistry registry = StyleRegistry.get(diagram);
+        Style style = registry.styles.get(styleId);
+        if (style != null && style.eContainer() == diagram) {
+            return style;
+        }
+        for (Style diagramStyle : diagram.getStyles()) {
+            if (styleId.equals(diagramStyle.getId())) {
+                registry.styles.put(styleId, diagramStyle);
+                return diagramStyle;
             }
         }
-        return createStyle(diagram, styleId, styleInitializer);
+        style = createStyle(diagram, styleId, styleInitializer);
+        registry.styles.put(styleId, style);
+        return style;
     }
 
     private static Color getColor(Diagram diagram, String bpmnName, String propertyName) {
-        String fullPropertyName = LanguageElementPreferenceNode.getBpmnPropertyName(bpmnName, propertyName);
-        if (!Activator.getDefault().getPreferenceStore().contains(fullPropertyName)) {
-            fullPropertyName = LanguageElementPreferenceNode.getBpmnDefaultPropertyName(propertyName);
+        RGB colorPref = (RGB) preferenceValues.get(bpmnName + "." + propertyName);
+        if (colorPref == null) {
+            colorPref = PreferenceConverter.getColor(Activator.getDefault().getPreferenceStore(), getFullPropertyName(bpmnName, propertyName));
+            preferenceValues.put(bpmnName + "." + propertyName, colorPref);
         }
-        RGB colorPref = PreferenceConverter.getColor(Activator.getDefault().getPreferenceStore(), fullPropertyName);
         return Graphiti.getGaService().manageColor(diagram, new ColorConstant(colorPref.red, colorPref.green, colorPref.blue));
     }
 
     private static int getInt(Diagram diagram, String bpmnName, String propertyName) {
+        Integer value = (Integer) preferenceValues.get(bpmnName + "." + propertyName);
+        if (value == null) {
+            value = Activator.getDefault().getPreferenceStore().getInt(getFullPropertyName(bpmnName, propertyName));
+            preferenceValues.put(bpmnName + "." + propertyName, value);
+        }
+        return value;
+    }
+
+    private static FontData getFontData(String bpmnName, String propertyName) {
+        FontData fontData = (FontData) preferenceValues.get(bpmnName + "." + propertyName);
+        if (fontData == null) {
+            fontData = PreferenceConverter.getFontData(Activator.getDefault().getPreferenceStore(), getFullPropertyName(bpmnName, propertyName));
+            preferenceValues.put(bpmnName + "." + propertyName, fontData);
+        }
+        return fontData;
+    }
+
+    private static String getFullPropertyName(String bpmnName, String propertyName) {
         String fullPropertyName = LanguageElementPreferenceNode.getBpmnPropertyName(bpmnName, propertyName);
         if (!Activator.getDefault().getPreferenceStore().contains(fullPropertyName)) {
             fullPropertyName = LanguageElementPreferenceNode.getBpmnDefaultPropertyName(propertyName);
         }
-        return Activator.getDefault().getPreferenceStore().getInt(fullPropertyName);
+        return fullPropertyName;
     }
 
     public static void resetStyles(Diagram diagram) {
@@ -130,6 +173,27 @@ public class StyleUtil implements PrefConstants {
         }
     }
 
+    /**
+     * Diagram styles by id, attached to the diagram as adapter to avoid linear search in diagram styles on each lookup.
+     */
+    private static class StyleRegistry extends AdapterImpl {
+        private final Map<String, Style> styles = new HashMap<>();
+
+        private static StyleRegistry get(Diagram diagram) {
+            StyleRegistry registry = (StyleRegistry) EcoreUtil.getExistingAdapter(diagram, StyleRegistry.class);
+            if (registry == null) {
+                registry = new StyleRegistry();
+                diagram.eAdapters().add(registry);
+            }
+            return registry;
+        }
+
+        @Override
+        public boolean isAdapterForType(Object type) {
+            return type == StyleRegistry.class;
+        }
+    }
+
     public static abstract class StyleInitializer {
 
         public abstract void init(Diagram diagram, Style style);
@@ -255,11 +319,7 @@ public class StyleUtil implements PrefConstants {
 
         @Override
         public void init(Diagram diagram, Style style) {
-            String fontPropertyName = LanguageElementPreferenceNode.getBpmnPropertyName(bpmnName, P_BPMN_FONT);
-            if (!Activator.getDefault().getPreferenceStore().contains(fontPropertyName)) {
-                fontPropertyName = LanguageElementPreferenceNode.getBpmnDefaultPropertyName(P_BPMN_FONT);
-            }
-            FontData fontData = PreferenceConverter.getFontData(Activator.getDefault().getPreferenceStore(), fontPropertyName);
+            FontData fontData = getFontData(bpmnName, P_BPMN_FONT);
             boolean italic = (fontData.getStyle() & SWT.ITALIC) != 0;
             boolean bold = (fontData.getStyle() & SWT.BOLD) != 0;
             Font font = Graphiti.getGaService().manageFont(diagram, fontData.getName(), fontData.getHeight(), italic, bold);
@@ -20,6 +20,10 @@ import ru.runa.gpd.lang.model.TaskState;
 import ru.runa.gpd.lang.model.Transition;
 
 public class AddActionFeature extends AddElementFeature implements GEFConstants {
+    /**
+     * Context property: owner layout is done by caller once for all added actions
+     */
+    public static final String SKIP_LAYOUT = "skipLayout";
 
     @Override
     public boolean canAdd(IAddContext context) {
@@ -50,7 +54,9 @@ public class AddActionFeature extends AddElementFeature implements GEFConstants
                     gaService.setLocationAndSize(actionIcon, -iconSize.width / 2, -iconSize.height / 2, iconSize.width, iconSize.height);
                     link(actionDecorator, action);
                     peCreateService.createChopboxAnchor(actionDecorator);
-                    layoutPictogramElement(connection);
+                    if (context.getProperty(SKIP_LAYOUT) == null) {
+                        layoutPictogramElement(connection);
+                    }
                     return actionDecorator;
                 } else {
                     throw new IllegalStateException("unknown action: " + action);
@@ -71,7 +77,9 @@ public class AddActionFeature extends AddElementFeature implements GEFConstants
                     gaService.setSize(actionIcon, iconSize.width, iconSize.height);
                     link(actionShape, action);
                     peCreateService.createChopboxAnchor(actionShape);
-                    layoutPictogramElement(targetShape);
+                    if (context.getProperty(SKIP_LAYOUT) == null) {
+                        layoutPictogramElement(targetShape);
+                    }
                     return actionShape;
                 } else {
                     throw new IllegalStateException("unknown action: " + action);
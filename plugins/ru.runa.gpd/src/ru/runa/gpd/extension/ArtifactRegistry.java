@@ -8,14 +8,18 @@ import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import ru.runa.gpd.PluginLogger;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 public abstract class ArtifactRegistry<T extends Artifact> {
     private final List<T> list = Lists.newArrayList();
+    // first artifact of the list by name, rebuilt after modifications; artifacts can be renamed in preferences so hits are verified
+    private volatile Map<String, T> artifactsByName;
     private final ArtifactContentProvider<T> contentProvider;
 
     public ArtifactRegistry(ArtifactContentProvider<T> contentProvider) {
@@ -41,11 +45,13 @@ public abstract class ArtifactRegistry<T extends Artifact> {
         } else {
             loadDefaults(list);
         }
+        artifactsByName = null;
     }
 
     public void load(InputStream is) {
         list.clear();
         list.addAll(contentProvider.load(is));
+        artifactsByName = null;
     }
 
     protected void loadDefaults(List<T> list) {
@@ -64,14 +70,35 @@ public abstract class ArtifactRegistry<T extends Artifact> {
     }
 
     public T getArtifact(String name) {
-        for (T artifact : list) {
-            if (Objects.equal(name, artifact.getName())) {
-                return artifact;
+        Map<String, T> index = artifactsByName;
+        if (index == null) {
+            index = buildNameIndex();
+        }
+        T artifact = index.get(name);
+        if (artifact != null && Objects.equal(name, artifact.getName())) {
+            return artifact;
+        }
+        for (T candidate : list) {
+            if (Objects.equal(name, candidate.getName())) {
+                // renamed after indexing
+                buildNameIndex();
+                return candidate;
             }
         }
         return null;
     }
 
+    private Map<String, T> buildNameIndex() {
+        Map<String, T> index = Maps.newHashMap();
+        for (T artifact : list) {
+            if (!index.containsKey(artifact.getName())) {
+                index.put(artifact.getName(), artifact);
+            }
+        }
+        artifactsByName = index;
+        return index;
+    }
+
     public T getArtifactNotNull(String name) {
         T artifact = getArtifact(name);
         if (artifact == null) {
@@ -104,13 +131,16 @@ public abstract class ArtifactRegistry<T extends Artifact> {
 
     public void add(T artifact) {
         list.add(artifact);
+        artifactsByName = null;
     }
 
     public void delete(T artifact) {
         list.remove(artifact);
+        artifactsByName = null;
     }
 
     public void save() throws Exception {
+        artifactsByName = null;
         File file = getContentFile();
         if (file != null) {
             export(new FileOutputStream(file));
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.Platform;
@@ -21,6 +22,8 @@ import ru.runa.wfe.var.UserTypeMap;
 
 public class VariableFormatRegistry extends ArtifactRegistry<VariableFormatArtifact> {
     private static final String XML_FILE_NAME = "variableFormats.xml";
+    // superclass name -> class name -> result, classes can not change in runtime
+    private static final Map<String, Map<String, Boolean>> assignableCache = new ConcurrentHashMap<>();
     private static final VariableFormatRegistry instance = new VariableFormatRegistry();
     private List<VariableFormatArtifact> filterArtifacts;
 
@@ -68,8 +71,38 @@ public class VariableFormatRegistry extends ArtifactRegistry<VariableFormatArtif
     }
 
     public static boolean isAssignableFrom(String superClassName, String className) {
+        if (superClassName == null || className == null) {
+            return isAssignableFromInternal(superClassName, className);
+        }
+        Map<String, Boolean> results = getAssignableResults(superClassName);
+        Boolean result = results.get(className);
+        if (result == null) {
+            result = isAssignableFromInternal(superClassName, className);
+            results.put(className, result);
+        }
+        return result;
+    }
+
+    public static boolean isAssignableFrom(Class<?> superClass, String className) {
+        if (className == null) {
+            return isAssignableFromInternal(superClass, className);
+        }
+        Map<String, Boolean> results = getAssignableResults(superClass.getName());
+        Boolean result = results.get(className);
+        if (result == null) {
+            result = isAssignableFromInternal(superClass, className);
+            results.put(className, result);
+        }
+        return result;
+    }
+
+    private static Map<String, Boolean> getAssignableResults(String superClassName) {
+        return assignableCache.computeIfAbsent(superClassName, key -> new ConcurrentHashMap<>());
+    }
+
+    private static boolean isAssignableFromInternal(String superClassName, String className) {
         try {
-            return isAssignableFrom(Class.forName(superClassName), className);
+            return isAssignableFromInternal(Class.forName(superClassName), className);
         } catch (ClassNotFoundException e) {
             // UserType
             return false;
@@ -79,7 +112,7 @@ public class VariableFormatRegistry extends ArtifactRegistry<VariableFormatArtif
         }
     }
 
-    public static boolean isAssignableFrom(Class<?> superClass, String className) {
+    private static boolean isAssignableFromInternal(Class<?> superClass, String className) {
         try {
             Class<?> testingClass = Class.forName(className);
             return superClass.isAssignableFrom(testingClass);
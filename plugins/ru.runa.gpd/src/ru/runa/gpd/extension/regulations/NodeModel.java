@@ -15,6 +15,7 @@ public class NodeModel {
     private final List<Transition> leavingTransitions;
     private final NodeRegulationsProperties properties;
     private Swimlane swimlane;
+    private FormNodeValidation formNodeValidation;
 
     public NodeModel(Node node) {
         this.node = node;
@@ -53,7 +54,10 @@ public class NodeModel {
     }
 
     public FormNodeValidation getFormNodeValidation() {
-        return ((FormNode) node).getValidation(node.getProcessDefinition().getFile());
+        if (formNodeValidation == null) {
+            formNodeValidation = ((FormNode) node).getValidation(node.getProcessDefinition().getFile());
+        }
+        return formNodeValidation;
     }
 
     public String getLocalized(String string) {
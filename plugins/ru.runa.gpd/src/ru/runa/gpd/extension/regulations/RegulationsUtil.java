@@ -7,6 +7,8 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.LinkedList;
@@ -18,6 +20,7 @@ import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import ru.runa.gpd.Localization;
 import ru.runa.gpd.PluginConstants;
 import ru.runa.gpd.PluginLogger;
@@ -61,6 +64,8 @@ import ru.runa.gpd.validation.ValidatorDefinitionRegistry;
 
 public class RegulationsUtil {
     private static final Configuration configuration = new Configuration(Configuration.VERSION_2_3_23);
+    // compiled template is thread-safe
+    private static Template template;
 
     public static String getNodeLabel(Node node) {
         if (Strings.isNullOrEmpty(node.getName())) {
@@ -69,8 +74,14 @@ public class RegulationsUtil {
         return node.getName() + " [" + node.getId() + "]";
     }
 
+    private static synchronized Template getTemplate() throws IOException {
+        if (template == null) {
+            template = new Template("regulations", RegulationsRegistry.getTemplate(), configuration);
+        }
+        return template;
+    }
+
     public static String generate(ProcessDefinition processDefinition) throws Exception {
-        Template template = new Template("regulations", RegulationsRegistry.getTemplate(), configuration);
         List<Node> listOfNodes = getSequencedNodes(processDefinition);
         List<NodeModel> nodeModels = Lists.newArrayList();
         for (Node node : listOfNodes) {
@@ -93,10 +104,39 @@ public class RegulationsUtil {
             map.put("processHtmlDescription", IOUtils.readStream(htmlDescriptionFile.getContents()));
         }
         Writer writer = new StringWriter();
-        template.process(map, writer);
+        getTemplate().process(map, writer);
         return writer.toString();
     }
 
+    /**
+     * Creates regulations for each valid process definition, notes of invalid ones are shown in {@link RegulationsNotesView}.
+     * 
+     * @return number of created regulations
+     */
+    public static int generate(List<IFile> definitionFiles, IProgressMonitor monitor) throws Exception {
+        monitor.beginTask("", definitionFiles.size());
+        int count = 0;
+        try {
+            for (IFile definitionFile : definitionFiles) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                ProcessDefinition processDefinition = ProcessCache.getProcessDefinition(definitionFile);
+                monitor.subTask(processDefinition.getName());
+                if (!processDefinition.isInvalid() && validate(processDefinition, false, false)) {
+                    String html = generate(processDefinition);
+                    IFile file = IOUtils.getAdjacentFile(definitionFile, ParContentProvider.REGULATIONS_HTML_FILE_NAME);
+                    IOUtils.createOrUpdateFile(file, new ByteArrayInputStream(html.getBytes()));
+                    count++;
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            monitor.done();
+        }
+        return count;
+    }
+
     public static List<Node> getSequencedNodes(ProcessDefinition processDefinition) {
         List<Node> result = Lists.newArrayList();
         Node currentNode = processDefinition.getFirstChild(StartState.class);
@@ -386,6 +426,10 @@ public class RegulationsUtil {
     }
 
     public static boolean validate(ProcessDefinition processDefinition, boolean validationFromAutoFill) {
+        return validate(processDefinition, validationFromAutoFill, true);
+    }
+
+    private static boolean validate(ProcessDefinition processDefinition, boolean validationFromAutoFill, boolean showView) {
         List<ValidationError> errors = Lists.newArrayList();
         IFile definitionFile = processDefinition.getFile();
         for (Node node : processDefinition.getNodes()) {
@@ -429,16 +473,16 @@ public class RegulationsUtil {
                     errors.add(ValidationError.createLocalizedWarning(subprocessDefinition, "regulations.subprocessContainsErrors",
                             subprocessDefinition.getName()));
                 } else {
-                    result &= validate(subprocessDefinition, validationFromAutoFill);
+                    result &= validate(subprocessDefinition, validationFromAutoFill, showView);
                 }
             }
         }
         result &= errors.isEmpty();
-        updateView(definitionFile, errors);
+        updateView(definitionFile, errors, showView);
         return result;
     }
 
-    private static void updateView(IFile definitionFile, List<ValidationError> errors) {
+    private static void updateView(IFile definitionFile, List<ValidationError> errors, boolean showView) {
         try {
             definitionFile.deleteMarkers(RegulationsNotesView.ID, true, IResource.DEPTH_INFINITE);
             for (ValidationError validationError : errors) {
@@ -451,7 +495,7 @@ public class RegulationsUtil {
                     marker.setAttribute(PluginConstants.PROCESS_NAME_KEY, validationError.getSource().getProcessDefinition().getName());
                 }
             }
-            if (!errors.isEmpty()) {
+            if (showView && !errors.isEmpty()) {
                 EditorUtils.showView(RegulationsNotesView.ID);
             }
         } catch (CoreException e) {
@@ -1,6 +1,7 @@
 package ru.runa.gpd.lang;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +21,9 @@ import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.lang.model.SubprocessDefinition;
 import ru.runa.gpd.lang.par.ParContentProvider;
 import ru.runa.gpd.util.IOUtils;
+import ru.runa.gpd.util.StudioMetrics;
 import ru.runa.gpd.util.XmlUtil;
 
-import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -30,8 +31,10 @@ import com.google.common.collect.Maps;
 public class NodeRegistry {
     private static Map<String, NodeTypeDefinition> typesByModelClass = Maps.newHashMap();
     private static List<NodeTypeDefinition> definitions = Lists.newArrayList();
+    private static Map<Language, Map<String, NodeTypeDefinition>> typesByElementName = Maps.newEnumMap(Language.class);
     static {
         processJpdlElements();
+        buildElementNameIndex();
     }
 
     private static void processJpdlElements() {
@@ -48,6 +51,25 @@ public class NodeRegistry {
         }
     }
 
+    /**
+     * Index keeps the first definition in iteration order of typesByModelClass as the former linear search did.
+     */
+    private static void buildElementNameIndex() {
+        for (Language language : Language.values()) {
+            typesByElementName.put(language, new HashMap<String, NodeTypeDefinition>());
+        }
+        for (NodeTypeDefinition definition : typesByModelClass.values()) {
+            putIfAbsent(typesByElementName.get(Language.JPDL), definition.getJpdlElementName(), definition);
+            putIfAbsent(typesByElementName.get(Language.BPMN), definition.getBpmnElementName(), definition);
+        }
+    }
+
+    private static void putIfAbsent(Map<String, NodeTypeDefinition> map, String name, NodeTypeDefinition definition) {
+        if (!map.containsKey(name)) {
+            map.put(name, definition);
+        }
+    }
+
     private static void processConfigElement(IConfigurationElement configElement) throws CoreException {
         if (!configElement.getName().equals("element")) {
             throw new RuntimeException("unknown config element: " + configElement.getName());
@@ -62,15 +84,11 @@ public class NodeRegistry {
     }
 
     public static NodeTypeDefinition getNodeTypeDefinition(Language language, String name) {
-        for (NodeTypeDefinition definition : typesByModelClass.values()) {
-            if (language == Language.JPDL && Objects.equal(definition.getJpdlElementName(), name)) {
-                return definition;
-            }
-            if (language == Language.BPMN && Objects.equal(definition.getBpmnElementName(), name)) {
-                return definition;
-            }
+        Map<String, NodeTypeDefinition> types = typesByElementName.get(language);
+        if (types == null || !types.containsKey(name)) {
+            throw new RuntimeException("No type found by name " + name);
         }
-        throw new RuntimeException("No type found by name " + name);
+        return types.get(name);
     }
 
     public static boolean hasNodeTypeDefinition(Class<? extends GraphElement> clazz) {
@@ -95,11 +113,14 @@ public class NodeRegistry {
     }
 
     public static ProcessDefinition parseProcessDefinition(IFile definitionFile) throws Exception {
+        long start = StudioMetrics.start();
         try {
             return parseProcessDefinitionInternal(definitionFile);
         } catch (ResourceException e) {
             definitionFile.getParent().refreshLocal(IResource.DEPTH_ONE, null);
             return parseProcessDefinitionInternal(definitionFile);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.PARSE_PROCESS_DEFINITION, start);
         }
     }
 
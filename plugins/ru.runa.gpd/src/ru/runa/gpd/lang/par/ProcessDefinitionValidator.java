@@ -16,6 +16,7 @@ import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.lang.model.Swimlane;
 import ru.runa.gpd.lang.model.Transition;
 import ru.runa.gpd.ui.view.ValidationErrorsView;
+import ru.runa.gpd.util.StudioMetrics;
 
 public class ProcessDefinitionValidator {
 
@@ -27,6 +28,7 @@ public class ProcessDefinitionValidator {
      * 0 = no errors 1 = only warnings 2 = errors
      */
     public static int validateDefinition(ProcessDefinition processDefinition) {
+        long start = StudioMetrics.start();
         try {
             boolean hasErrors = false;
             boolean hasWarnings = false;
@@ -53,6 +55,8 @@ public class ProcessDefinitionValidator {
         } catch (Throwable e) {
             PluginLogger.logError(e);
             return ERRORS;
+        } finally {
+            StudioMetrics.stop(StudioMetrics.VALIDATE_PROCESS_DEFINITION, start);
         }
     }
 
@@ -3,8 +3,8 @@ package ru.runa.gpd.ldap;
 import java.util.Hashtable;
 
 import javax.naming.Context;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
 
 import org.eclipse.jface.window.Window;
 
@@ -16,7 +16,7 @@ import ru.runa.gpd.ui.dialog.UserInputDialog;
 import ru.runa.gpd.wfe.IConnector;
 
 public class LDAPConnector implements IConnector, PrefConstants {
-    private DirContext dirContext;
+    private LdapContext ldapContext;
     private static LDAPConnector instance;
 
     private LDAPConnector() {
@@ -29,8 +29,8 @@ public class LDAPConnector implements IConnector, PrefConstants {
         return instance;
     }
 
-    public DirContext getDirContext() {
-        return dirContext;
+    public LdapContext getLdapContext() {
+        return ldapContext;
     }
 
     @Override
@@ -59,7 +59,7 @@ public class LDAPConnector implements IConnector, PrefConstants {
             env.put(Context.SECURITY_AUTHENTICATION, "GSSAPI");
         }
         env.put("java.naming.ldap.version", "3");
-        this.dirContext = new InitialDirContext(env);
+        this.ldapContext = new InitialLdapContext(env, null);
     }
 
     @Override
@@ -77,6 +77,6 @@ public class LDAPConnector implements IConnector, PrefConstants {
 
     @Override
     public void disconnect() throws Exception {
-        dirContext.close();
+        ldapContext.close();
     }
 }
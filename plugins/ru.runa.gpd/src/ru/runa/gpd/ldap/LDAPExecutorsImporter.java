@@ -1,17 +1,30 @@
 package ru.runa.gpd.ldap;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import javax.naming.NameClassPair;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
 import javax.naming.directory.Attributes;
-import javax.naming.directory.BasicAttributes;
+import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
 import ru.runa.gpd.Activator;
 import ru.runa.gpd.settings.PrefConstants;
 import ru.runa.gpd.wfe.ExecutorsImporter;
@@ -21,6 +34,10 @@ public class LDAPExecutorsImporter extends ExecutorsImporter implements PrefCons
     private static final String OBJECT_CLASS_ATTR_USER_VALUE = "user";
     private static final String OBJECT_CLASS_ATTR_GROUP_VALUE = "group";
     private static final String SAM_ACCOUNT_NAME = "SamAccountName";
+    private static final String SEARCH_FILTER = "(|(" + OBJECT_CLASS_ATTR_NAME + "=" + OBJECT_CLASS_ATTR_USER_VALUE + ")(" + OBJECT_CLASS_ATTR_NAME
+            + "=" + OBJECT_CLASS_ATTR_GROUP_VALUE + "))";
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PARALLEL_SEARCHES = 4;
     private static LDAPExecutorsImporter instance;
 
     @Override
@@ -35,47 +52,100 @@ public class LDAPExecutorsImporter extends ExecutorsImporter implements PrefCons
         return instance;
     }
 
+    /**
+     * Each OU is scanned by one paged search which returns only needed attributes; OUs are scanned concurrently.
+     */
     @Override
-    protected void loadRemoteData(IProgressMonitor monitor) throws Exception {
-        for (String userName : getGroupList()) {
-            executors.put(userName, true);
+    protected void loadRemoteExecutors(final Map<String, Boolean> executors, IProgressMonitor monitor) throws Exception {
+        String[] ouNames = Activator.getPrefString(P_LDAP_CONNECTION_OU).split(";");
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(ouNames.length, MAX_PARALLEL_SEARCHES));
+        try {
+            List<Future<Void>> futures = Lists.newArrayListWithExpectedSize(ouNames.length);
+            for (final String ou : ouNames) {
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        loadOrganizationalUnit(ou, executors);
+                        return null;
+                    }
+                }));
+            }
+            int workPerUnit = 100 / ouNames.length;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+                    throw Throwables.propagate(e.getCause());
+                }
+                monitor.worked(workPerUnit);
+            }
+        } finally {
+            executorService.shutdownNow();
         }
-        monitor.worked(50);
-        for (String userName : getActorList()) {
-            executors.put(userName, false);
+    }
+
+    private void loadOrganizationalUnit(String ou, Map<String, Boolean> executors) throws NamingException, IOException {
+        // separate context instance shares connection but has own request controls
+        LdapContext context = getConnector().getLdapContext().newInstance(new Control[] { new PagedResultsControl(PAGE_SIZE, Control.NONCRITICAL) });
+        try {
+            SearchControls searchControls = new SearchControls();
+            searchControls.setSearchScope(SearchControls.ONELEVEL_SCOPE);
+            searchControls.setReturningAttributes(new String[] { SAM_ACCOUNT_NAME, OBJECT_CLASS_ATTR_NAME });
+            byte[] cookie;
+            do {
+                NamingEnumeration<SearchResult> results = context.search(ou, SEARCH_FILTER, searchControls);
+                try {
+                    while (results.hasMore()) {
+                        addExecutor(results.next().getAttributes(), executors);
+                    }
+                } finally {
+                    results.close();
+                }
+                cookie = getPagedResultsCookie(context.getResponseControls());
+                if (cookie != null) {
+                    context.setRequestControls(new Control[] { new PagedResultsControl(PAGE_SIZE, cookie, Control.CRITICAL) });
+                }
+            } while (cookie != null);
+        } finally {
+            context.close();
         }
-        monitor.worked(50);
     }
 
-    private List<String> getActorList() throws NamingException {
-        String[] ouNames = Activator.getPrefString(P_LDAP_CONNECTION_OU).split(";");
-        List<String> actors = new ArrayList<String>();
-        Attributes attrs = new BasicAttributes();
-        attrs.put(OBJECT_CLASS_ATTR_NAME, OBJECT_CLASS_ATTR_USER_VALUE);
-        for (String ou : ouNames) {
-            NamingEnumeration<SearchResult> list = getConnector().getDirContext().search(ou, attrs);
-            while (list.hasMore()) {
-                NameClassPair nc = list.next();
-                String name = getConnector().getDirContext().getAttributes(nc.getName() + "," + ou).get(SAM_ACCOUNT_NAME).get().toString();
-                actors.add(name);
+    private byte[] getPagedResultsCookie(Control[] controls) {
+        if (controls != null) {
+            for (Control control : controls) {
+                if (control instanceof PagedResultsResponseControl) {
+                    byte[] cookie = ((PagedResultsResponseControl) control).getCookie();
+                    return cookie != null && cookie.length > 0 ? cookie : null;
+                }
             }
         }
-        return actors;
+        return null;
     }
 
-    private List<String> getGroupList() throws NamingException {
-        String[] ouNames = Activator.getPrefString(P_LDAP_CONNECTION_OU).split(";");
-        List<String> groups = new ArrayList<String>();
-        Attributes attrs = new BasicAttributes();
-        attrs.put(OBJECT_CLASS_ATTR_NAME, OBJECT_CLASS_ATTR_GROUP_VALUE);
-        for (String ou : ouNames) {
-            NamingEnumeration<SearchResult> list = getConnector().getDirContext().search(ou, attrs);
-            while (list.hasMore()) {
-                NameClassPair nc = list.next();
-                String name = getConnector().getDirContext().getAttributes(nc.getName() + "," + ou).get(SAM_ACCOUNT_NAME).get().toString();
-                groups.add(name);
+    private void addExecutor(Attributes attributes, Map<String, Boolean> executors) throws NamingException {
+        Attribute nameAttribute = attributes.get(SAM_ACCOUNT_NAME);
+        if (nameAttribute == null) {
+            return;
+        }
+        String name = nameAttribute.get().toString();
+        boolean group = false;
+        Attribute objectClassAttribute = attributes.get(OBJECT_CLASS_ATTR_NAME);
+        if (objectClassAttribute != null) {
+            NamingEnumeration<?> objectClasses = objectClassAttribute.getAll();
+            while (objectClasses.hasMore()) {
+                if (OBJECT_CLASS_ATTR_GROUP_VALUE.equalsIgnoreCase(objectClasses.next().toString())) {
+                    group = true;
+                }
+            }
+        }
+        // OUs are loaded concurrently to the same map
+        synchronized (executors) {
+            // actor wins over group with the same name
+            if (!group || !executors.containsKey(name)) {
+                executors.put(name, group);
             }
         }
-        return groups;
     }
 }
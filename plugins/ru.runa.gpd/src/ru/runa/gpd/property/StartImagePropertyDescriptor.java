@@ -67,8 +67,12 @@ public class StartImagePropertyDescriptor extends PropertyDescriptor {
                     return;
                 }
                 ImageData data = new ImageData(imageFile.getContents()).scaledTo(16, 16);
+                Image oldImage = image;
                 image = new Image(colorLabel.getDisplay(), data, data.getTransparencyMask());
                 colorLabel.setImage(image);
+                if (oldImage != null) {
+                    oldImage.dispose();
+                }
             } catch (Exception e) {
                 PluginLogger.logErrorWithoutDialog("start image", e);
             }
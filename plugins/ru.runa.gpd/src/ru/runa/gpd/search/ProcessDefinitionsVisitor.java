@@ -1,7 +1,14 @@
 package ru.runa.gpd.search;
 
 import java.text.MessageFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -16,13 +23,22 @@ import org.eclipse.search.ui.NewSearchUI;
 
 import ru.runa.gpd.ProcessCache;
 import ru.runa.gpd.lang.model.ProcessDefinition;
+import ru.runa.gpd.util.StudioMetrics;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * Process definitions are split into partitions which are scanned concurrently, matches are added to the search result as soon as they are
+ * found. {@link #findInProcessDefinition(IFile, ProcessDefinition)} must not change shared state other than the search result.
+ */
 public abstract class ProcessDefinitionsVisitor {
+    private static final int MAX_PARALLEL_SCANS = Math.max(1, Runtime.getRuntime().availableProcessors());
     protected final BaseSearchQuery query;
     private IProgressMonitor progressMonitor;
-    private int numberOfScannedElements;
+    private final AtomicInteger numberOfScannedElements = new AtomicInteger();
     private int numberOfElementsToScan;
-    private ProcessDefinition currentDefinition;
+    private volatile ProcessDefinition currentDefinition;
     private final MultiStatus status;
 
     public ProcessDefinitionsVisitor(BaseSearchQuery query) {
@@ -31,9 +47,11 @@ public abstract class ProcessDefinitionsVisitor {
     }
 
     public IStatus search(SearchResult searchResult, IProgressMonitor monitor) {
+        long start = StudioMetrics.start();
         progressMonitor = monitor == null ? new NullProgressMonitor() : monitor;
-        numberOfScannedElements = 0;
-        numberOfElementsToScan = ProcessCache.getAllProcessDefinitions().size();
+        numberOfScannedElements.set(0);
+        List<Map.Entry<IFile, ProcessDefinition>> entries = Lists.newArrayList(ProcessCache.getAllProcessDefinitionsMap().entrySet());
+        numberOfElementsToScan = entries.size();
         Job monitorUpdateJob = new Job(SearchMessages.TextSearchVisitor_progress_updating_job) {
             private int lastNumberOfScannedElements = 0;
 
@@ -42,9 +60,10 @@ public abstract class ProcessDefinitionsVisitor {
                 while (!inner.isCanceled()) {
                     if (currentDefinition != null) {
                         String name = currentDefinition.getName();
-                        Object[] args = { name, numberOfScannedElements, numberOfElementsToScan };
+                        int scannedElements = numberOfScannedElements.get();
+                        Object[] args = { name, scannedElements, numberOfElementsToScan };
                         progressMonitor.subTask(MessageFormat.format(SearchMessages.TextSearchVisitor_scanning, args));
-                        int steps = numberOfScannedElements - lastNumberOfScannedElements;
+                        int steps = scannedElements - lastNumberOfScannedElements;
                         progressMonitor.worked(steps);
                         lastNumberOfScannedElements += steps;
                     }
@@ -62,26 +81,58 @@ public abstract class ProcessDefinitionsVisitor {
             progressMonitor.beginTask(taskName, numberOfElementsToScan);
             monitorUpdateJob.setSystem(true);
             monitorUpdateJob.schedule();
+            int partitionsCount = Math.max(1, Math.min(MAX_PARALLEL_SCANS, entries.size()));
+            ExecutorService executorService = Executors.newFixedThreadPool(partitionsCount);
             try {
-                for (Map.Entry<IFile, ProcessDefinition> entry : ProcessCache.getAllProcessDefinitionsMap().entrySet()) {
+                List<Future<Void>> futures = Lists.newArrayListWithExpectedSize(partitionsCount);
+                int partitionSize = Math.max(1, (entries.size() + partitionsCount - 1) / partitionsCount);
+                for (final List<Map.Entry<IFile, ProcessDefinition>> partition : Lists.partition(entries, partitionSize)) {
+                    futures.add(executorService.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            scan(partition);
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> future : futures) {
                     try {
-                        currentDefinition = entry.getValue();
-                        findInProcessDefinition(entry.getKey(), entry.getValue());
-                    } catch (Exception e) {
-                        status.add(new Status(IStatus.ERROR, NewSearchUI.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e));
-                    } finally {
-                        numberOfScannedElements++;
-                    }
-                    if (progressMonitor.isCanceled()) {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        throw Throwables.propagate(e.getCause());
+                    } catch (InterruptedException e) {
                         throw new OperationCanceledException(SearchMessages.TextSearchVisitor_canceled);
                     }
                 }
+                if (progressMonitor.isCanceled()) {
+                    throw new OperationCanceledException(SearchMessages.TextSearchVisitor_canceled);
+                }
                 return status;
             } finally {
+                executorService.shutdownNow();
                 monitorUpdateJob.cancel();
             }
         } finally {
             progressMonitor.done();
+            StudioMetrics.stop(StudioMetrics.SEARCH + getClass().getSimpleName(), start);
+        }
+    }
+
+    private void scan(List<Map.Entry<IFile, ProcessDefinition>> partition) {
+        for (Map.Entry<IFile, ProcessDefinition> entry : partition) {
+            if (progressMonitor.isCanceled()) {
+                return;
+            }
+            try {
+                currentDefinition = entry.getValue();
+                findInProcessDefinition(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                synchronized (status) {
+                    status.add(new Status(IStatus.ERROR, NewSearchUI.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e));
+                }
+            } finally {
+                numberOfScannedElements.incrementAndGet();
+            }
         }
     }
 
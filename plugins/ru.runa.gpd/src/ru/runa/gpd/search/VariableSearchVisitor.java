@@ -43,6 +43,7 @@ import ru.runa.gpd.lang.model.TaskState;
 import ru.runa.gpd.lang.model.Timer;
 import ru.runa.gpd.lang.par.ParContentProvider;
 import ru.runa.gpd.util.IOUtils;
+import ru.runa.gpd.util.StudioMetrics;
 import ru.runa.gpd.util.VariableMapping;
 import ru.runa.gpd.util.VariableUtils;
 import ru.runa.gpd.validation.FormNodeValidation;
@@ -72,6 +73,7 @@ public class VariableSearchVisitor {
     }
 
     public IStatus search(SearchResult searchResult, IProgressMonitor monitor) {
+        long start = StudioMetrics.start();
         Map<ProcessDefinition, IFile> map = Maps.newHashMap();
         map.put(query.getMainProcessDefinition(), query.getMainProcessdefinitionFile());
         numberOfElementsToScan = query.getMainProcessDefinition().getChildrenRecursive(GraphElement.class).size();
@@ -126,6 +128,7 @@ public class VariableSearchVisitor {
             }
         } finally {
             progressMonitor.done();
+            StudioMetrics.stop(StudioMetrics.SEARCH + getClass().getSimpleName(), start);
         }
     }
 
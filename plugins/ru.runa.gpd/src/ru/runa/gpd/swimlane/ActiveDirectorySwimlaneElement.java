@@ -1,7 +1,6 @@
 package ru.runa.gpd.swimlane;
 
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
@@ -19,8 +18,6 @@ import ru.runa.gpd.ui.custom.SyncUIHelper;
 import ru.runa.gpd.ui.dialog.ChooseItemDialog;
 import ru.runa.wfe.extension.orgfunction.ExecutorByNameFunction;
 
-import com.google.common.collect.Lists;
-
 public class ActiveDirectorySwimlaneElement extends OrgFunctionSwimlaneElement {
     private Text selectionText;
 
@@ -46,8 +43,7 @@ public class ActiveDirectorySwimlaneElement extends OrgFunctionSwimlaneElement {
         SWTUtils.createLink(content, Localization.getString("button.choose"), new LoggingHyperlinkAdapter() {
             @Override
             protected void onLinkActivated(HyperlinkEvent e) throws Exception {
-                Map<String, Boolean> executors = LDAPExecutorsImporter.getInstance().loadCachedData();
-                List<String> list = Lists.newArrayList(executors.keySet());
+                List<String> list = LDAPExecutorsImporter.getInstance().getExecutorNames(true, true);
                 ChooseItemDialog<String> dialog = new ChooseItemDialog<String>(Localization.getString("WFDialog.Text"), list);
                 String result = dialog.openDialog();
                 if (result != null) {
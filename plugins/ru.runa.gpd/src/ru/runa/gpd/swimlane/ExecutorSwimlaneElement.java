@@ -1,8 +1,6 @@
 package ru.runa.gpd.swimlane;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
@@ -37,17 +35,7 @@ public class ExecutorSwimlaneElement extends OrgFunctionSwimlaneElement {
         SWTUtils.createLink(clientArea, Localization.getString("button.choose"), new LoggingHyperlinkAdapter() {
             @Override
             protected void onLinkActivated(HyperlinkEvent e) throws Exception {
-                List<String> items = new ArrayList<String>();
-                Map<String, Boolean> executors = WFEServerExecutorsImporter.getInstance().loadCachedData();
-                for (String name : executors.keySet()) {
-                    boolean isGroup = executors.get(name);
-                    if (isGroup && (mask & 2) != 0) {
-                        items.add(name);
-                    }
-                    if (!isGroup && (mask & 1) != 0) {
-                        items.add(name);
-                    }
-                }
+                List<String> items = WFEServerExecutorsImporter.getInstance().getExecutorNames((mask & 1) != 0, (mask & 2) != 0);
                 ChooseItemDialog<String> dialog = new ChooseItemDialog<String>(Localization.getString("WFDialog.Text"), items);
                 String result = dialog.openDialog();
                 if (result != null) {
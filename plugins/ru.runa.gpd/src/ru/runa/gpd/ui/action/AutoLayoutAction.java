@@ -0,0 +1,31 @@
+package ru.runa.gpd.ui.action;
+
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.swt.widgets.Display;
+
+import ru.runa.gpd.Localization;
+import ru.runa.gpd.editor.ProcessEditorBase;
+import ru.runa.gpd.editor.graphiti.AutoLayout;
+import ru.runa.gpd.editor.graphiti.DiagramEditorPage;
+import ru.runa.gpd.editor.graphiti.GraphitiProcessEditor;
+import ru.runa.gpd.util.WorkspaceOperations;
+
+public class AutoLayoutAction extends BaseActionDelegate {
+
+    @Override
+    public void run(IAction action) {
+        ProcessEditorBase editor = getActiveDesignerEditor();
+        final DiagramEditorPage diagramEditorPage = ((GraphitiProcessEditor) editor).getDiagramEditorPage();
+        final AutoLayout autoLayout = new AutoLayout(editor.getDefinition());
+        WorkspaceOperations.job(Localization.getString("label.menu.properties.autoLayout"), o -> {
+            autoLayout.layout();
+            Display.getDefault().asyncExec(() -> diagramEditorPage.applyAutoLayout(autoLayout));
+        });
+    }
+
+    @Override
+    public void selectionChanged(IAction action, ISelection selection) {
+        action.setEnabled(getActiveDesignerEditor() instanceof GraphitiProcessEditor);
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.ui.PlatformUI;
 import ru.runa.gpd.Activator;
 import ru.runa.gpd.Localization;
 import ru.runa.gpd.SharedImages;
+import ru.runa.gpd.editor.ProcessEditorBase;
 import ru.runa.gpd.editor.ProcessSaveHistory;
 import ru.runa.gpd.settings.PrefConstants;
 import ru.runa.gpd.ui.custom.LoggingSelectionAdapter;
@@ -40,6 +41,7 @@ public class ProcessSaveHistoryDialog extends Dialog {
         GridData gridData = new GridData(GridData.FILL_BOTH);
         gridData.heightHint = 200;
         lstSavepoints.setLayoutData(gridData);
+        ProcessEditorBase.joinSaveJobs(definitionFolder);
         savepoints = ProcessSaveHistory.getSavepoints(definitionFolder);
         for (String timestamp : savepoints.keySet()) {
             lstSavepoints.add(timestamp);
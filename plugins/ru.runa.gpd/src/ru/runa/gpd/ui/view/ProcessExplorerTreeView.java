@@ -41,6 +41,7 @@ import ru.runa.gpd.editor.ProcessSaveHistory;
 import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.lang.par.ParContentProvider;
 import ru.runa.gpd.search.SubprocessSearchQuery;
+import ru.runa.gpd.settings.CommonPreferencePage;
 import ru.runa.gpd.ui.custom.LoggingDoubleClickAdapter;
 import ru.runa.gpd.util.IOUtils;
 import ru.runa.gpd.util.UiUtil;
@@ -244,6 +245,23 @@ public class ProcessExplorerTreeView extends ViewPart implements ISelectionListe
                 }
             });
         }
+        if (menuOnContainer && !menuOnProcess && CommonPreferencePage.isRegulationsMenuItemsEnabled()) {
+            manager.add(new Action(Localization.getString("ExplorerTreeView.menu.label.createRegulations")) {
+                @Override
+                public void run() {
+                    WorkspaceOperations.createRegulations((IContainer) selectedObject);
+                }
+            });
+        }
+        if (menuOnContainer && !menuOnProcess) {
+            manager.add(new Action(Localization.getString("ExplorerTreeView.menu.label.reportVariablesUsage"),
+                    SharedImages.getImageDescriptor("icons/export.gif")) {
+                @Override
+                public void run() {
+                    WorkspaceOperations.reportVariablesUsage((IContainer) selectedObject);
+                }
+            });
+        }
         if (menuOnContainer) {
             manager.add(
                     new Action(Localization.getString("ExplorerTreeView.menu.label.refresh"), SharedImages.getImageDescriptor("icons/refresh.gif")) {
@@ -0,0 +1,136 @@
+package ru.runa.gpd.ui.view;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.ColumnWeightData;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TableLayout;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.ui.part.ViewPart;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import ru.runa.gpd.Localization;
+import ru.runa.gpd.ui.custom.LoggingSelectionAdapter;
+import ru.runa.gpd.ui.custom.SWTUtils;
+import ru.runa.gpd.util.StudioMetrics;
+import ru.runa.gpd.util.UiUtil;
+
+public class StudioMetricsView extends ViewPart {
+    public static final String ID = "ru.runa.gpd.studioMetrics";
+    private static final String[] COLUMN_NAMES = { "StudioMetricsView.name", "StudioMetricsView.count", "StudioMetricsView.total",
+            "StudioMetricsView.average", "StudioMetricsView.max" };
+    private TableViewer viewer;
+
+    @Override
+    public void createPartControl(Composite parent) {
+        UiUtil.hideToolBar(getViewSite());
+        Composite composite = new Composite(parent, SWT.NONE);
+        composite.setLayout(new GridLayout());
+        Composite buttonsComposite = new Composite(composite, SWT.NONE);
+        buttonsComposite.setLayout(new GridLayout(4, false));
+        final Button enabledButton = new Button(buttonsComposite, SWT.CHECK);
+        enabledButton.setText(Localization.getString("StudioMetricsView.enabled"));
+        enabledButton.setSelection(StudioMetrics.isEnabled());
+        enabledButton.addSelectionListener(new LoggingSelectionAdapter() {
+            @Override
+            protected void onSelection(SelectionEvent e) throws Exception {
+                StudioMetrics.setEnabled(enabledButton.getSelection());
+            }
+        });
+        SWTUtils.createButton(buttonsComposite, Localization.getString("StudioMetricsView.refresh"), new LoggingSelectionAdapter() {
+            @Override
+            protected void onSelection(SelectionEvent e) throws Exception {
+                refresh();
+            }
+        });
+        SWTUtils.createButton(buttonsComposite, Localization.getString("StudioMetricsView.reset"), new LoggingSelectionAdapter() {
+            @Override
+            protected void onSelection(SelectionEvent e) throws Exception {
+                StudioMetrics.reset();
+                refresh();
+            }
+        });
+        SWTUtils.createButton(buttonsComposite, Localization.getString("StudioMetricsView.export"), new LoggingSelectionAdapter() {
+            @Override
+            protected void onSelection(SelectionEvent e) throws Exception {
+                exportToCsv();
+            }
+        });
+        Table table = new Table(composite, SWT.H_SCROLL | SWT.V_SCROLL | SWT.FULL_SELECTION);
+        table.setLayoutData(new GridData(GridData.FILL_BOTH));
+        TableLayout layout = new TableLayout();
+        table.setLayout(layout);
+        table.setLinesVisible(true);
+        table.setHeaderVisible(true);
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            layout.addColumnData(new ColumnWeightData(i == 0 ? 5 : 2, true));
+            TableColumn column = new TableColumn(table, i == 0 ? SWT.LEFT : SWT.RIGHT);
+            column.setText(Localization.getString(COLUMN_NAMES[i]));
+        }
+        viewer = new TableViewer(table);
+        viewer.setContentProvider(new ArrayContentProvider());
+        viewer.setLabelProvider(new TimerLabelProvider());
+        refresh();
+    }
+
+    @Override
+    public void setFocus() {
+        refresh();
+    }
+
+    private void refresh() {
+        List<StudioMetrics.Timer> timers = StudioMetrics.getTimers();
+        viewer.setInput(timers);
+    }
+
+    private void exportToCsv() throws Exception {
+        FileDialog fd = new FileDialog(getSite().getShell(), SWT.SAVE);
+        fd.setText(Localization.getString("StudioMetricsView.export"));
+        fd.setFileName("studio-metrics.csv");
+        String filePath = fd.open();
+        if (filePath != null) {
+            Files.write(StudioMetrics.toCsv(), new File(filePath), Charsets.UTF_8);
+        }
+    }
+
+    private static class TimerLabelProvider extends LabelProvider implements ITableLabelProvider {
+        @Override
+        public String getColumnText(Object element, int index) {
+            StudioMetrics.Timer timer = (StudioMetrics.Timer) element;
+            switch (index) {
+            case 0:
+                return timer.getName();
+            case 1:
+                return String.valueOf(timer.getCount());
+            case 2:
+                return String.valueOf(timer.getTotalMillis());
+            case 3:
+                return String.valueOf(timer.getAverageMillis());
+            case 4:
+                return String.valueOf(timer.getMaxMillis());
+            default:
+                return "unknown " + index;
+            }
+        }
+
+        @Override
+        public Image getColumnImage(Object element, int columnIndex) {
+            return null;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.eclipse.ui.IWorkbench;
 import ru.runa.gpd.Localization;
 import ru.runa.gpd.PluginLogger;
 import ru.runa.gpd.ProcessCache;
+import ru.runa.gpd.editor.ProcessEditorBase;
 import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.util.IOUtils;
 import ru.runa.gpd.util.WorkspaceOperations;
@@ -46,6 +47,7 @@ public class CopyProcessDefinitionWizard extends Wizard implements INewWizard {
                         monitor.beginTask(Localization.getString("CopyProcessDefinitionWizard.monitor.title"), 3);
                         monitor.worked(1);
                         IFolder targetFolder = page.getTargetProcessFolder();
+                        ProcessEditorBase.joinSaveJobs(page.getSourceProcessFolder());
                         page.getSourceProcessFolder().copy(targetFolder.getFullPath(), true, monitor);
                         IFile definitionFile = IOUtils.getProcessDefinitionFile(targetFolder);
                         monitor.worked(1);
@@ -48,6 +48,7 @@ import ru.runa.gpd.Localization;
 import ru.runa.gpd.PluginLogger;
 import ru.runa.gpd.ProcessCache;
 import ru.runa.gpd.aspects.UserActivity;
+import ru.runa.gpd.editor.ProcessEditorBase;
 import ru.runa.gpd.editor.ProcessSaveHistory;
 import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.lang.model.SubprocessDefinition;
@@ -211,6 +212,8 @@ public class ExportParWizardPage extends WizardArchiveFileResourceExportPage1 {
             try {
                 IFile definitionFile = definitionNameFileMap.get(selectedDefinitionName);
                 IFolder processFolder = (IFolder) definitionFile.getParent();
+                // graph image and savepoint of the save above are written in background
+                ProcessEditorBase.joinSaveJobs(processFolder);
                 processFolder.refreshLocal(IResource.DEPTH_ONE, null);
                 ProcessDefinition definition = ProcessCache.getProcessDefinition(definitionFile);
                 int validationResult = ProcessDefinitionValidator.validateDefinition(definition);
@@ -0,0 +1,32 @@
+package ru.runa.gpd.util;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Events of one batch in firing order, source is the source of the first event.
+ */
+public class CompositePropertyChangeEvent extends PropertyChangeEvent {
+    private static final long serialVersionUID = 1L;
+    public static final String PROPERTY_NAME = "compositeChange";
+    private final List<PropertyChangeEvent> events;
+
+    public CompositePropertyChangeEvent(List<PropertyChangeEvent> events) {
+        super(events.get(0).getSource(), PROPERTY_NAME, null, null);
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    public List<PropertyChangeEvent> getEvents() {
+        return events;
+    }
+
+    public boolean hasEvent(String propertyName) {
+        for (PropertyChangeEvent event : events) {
+            if (propertyName.equals(event.getPropertyName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.runa.gpd.util;
+
+import java.beans.PropertyChangeListener;
+
+/**
+ * Listener which receives all events deferred by {@link EventSupport#startBatch()} at once as {@link CompositePropertyChangeEvent}. Outside of
+ * batches it receives ordinary events.
+ */
+public interface CompositePropertyChangeListener extends PropertyChangeListener {
+
+}
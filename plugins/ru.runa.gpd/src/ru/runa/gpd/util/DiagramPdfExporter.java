@@ -1,67 +1,204 @@
 package ru.runa.gpd.util;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.apache.pdfbox.util.Matrix;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PathData;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 
+import com.google.common.collect.Maps;
+
 import ru.runa.gpd.editor.ProcessEditorBase;
+import ru.runa.gpd.editor.gef.VectorGraphics;
 
+/**
+ * Diagram is exported as vector shapes. Diagram which does not fit the page at {@link #MIN_ZOOM} is split to several pages.
+ */
 public class DiagramPdfExporter {
 
     private static final float POINTS_PER_INCH = 72;
+    private static final float MIN_ZOOM = 0.5f;
 
     public static void go(ProcessEditorBase editor, String filePath, String paperSize) throws Exception {
-        File imgFile = File.createTempFile("wfe", null);
-        imgFile.deleteOnExit();
-        DiagramPngExporter.go(editor, imgFile.getPath());
-        try (InputStream is = new FileInputStream(imgFile)) {
-            PDDocument document = new PDDocument();
-            PDRectangle pageRectangle = PDRectangle.A3;
-            switch (paperSize) {
-            case "A4":
-                pageRectangle = PDRectangle.A4;
-                break;
-            case "A5":
-                pageRectangle = PDRectangle.A5;
-                break;
-            case "A6":
-                pageRectangle = PDRectangle.A6;
-                break;
+        VectorGraphics graphics = VectorGraphics.paint(editor.getGraphicalViewer());
+        PDRectangle pageRectangle = PDRectangle.A3;
+        switch (paperSize) {
+        case "A4":
+            pageRectangle = PDRectangle.A4;
+            break;
+        case "A5":
+            pageRectangle = PDRectangle.A5;
+            break;
+        case "A6":
+            pageRectangle = PDRectangle.A6;
+            break;
+        }
+        float width = Math.max(graphics.getWidth(), 1);
+        float height = Math.max(graphics.getHeight(), 1);
+        if (width / height >= 1) {
+            pageRectangle = new PDRectangle(pageRectangle.getHeight(), pageRectangle.getWidth());
+        }
+        Point dpi = Display.getDefault().getDPI();
+        float scale = POINTS_PER_INCH / dpi.x;
+        float fitScale = Math.min(pageRectangle.getWidth() / width, pageRectangle.getHeight() / height);
+        int columns = 1;
+        int rows = 1;
+        if (fitScale < scale * MIN_ZOOM) {
+            scale *= MIN_ZOOM;
+            columns = (int) Math.ceil(width * scale / pageRectangle.getWidth());
+            rows = (int) Math.ceil(height * scale / pageRectangle.getHeight());
+        } else {
+            scale = Math.min(scale, fitScale);
+        }
+        try (PDDocument document = new PDDocument()) {
+            Map<ImageData, PDImageXObject> images = new IdentityHashMap<>();
+            Map<Integer, PDExtendedGraphicsState> alphaStates = Maps.newHashMap();
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    PDPage page = new PDPage(pageRectangle);
+                    document.addPage(page);
+                    float offsetX = -column * pageRectangle.getWidth();
+                    float offsetY = -row * pageRectangle.getHeight();
+                    if (columns == 1 && rows == 1) {
+                        offsetX = (pageRectangle.getWidth() - width * scale) / 2;
+                        offsetY = (pageRectangle.getHeight() - height * scale) / 2;
+                    }
+                    try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                        // diagram y axis goes down
+                        contentStream.transform(new Matrix(scale, 0, 0, -scale, offsetX, pageRectangle.getHeight() - offsetY));
+                        graphics.replay(new PdfCanvas(document, contentStream, images, alphaStates));
+                    }
+                }
             }
-            PDImageXObject img = PDImageXObject.createFromFileByContent(imgFile, document);
-            PDPage page = null;
-            float ratio = img.getWidth() * 1.0f / img.getHeight();
-            if (ratio < 1) {
-                page = new PDPage(pageRectangle);
+            document.save(filePath);
+        }
+    }
+
+    private static class PdfCanvas implements VectorGraphics.Canvas {
+        private final PDDocument document;
+        private final PDPageContentStream contentStream;
+        private final Map<ImageData, PDImageXObject> images;
+        private final Map<Integer, PDExtendedGraphicsState> alphaStates;
+
+        public PdfCanvas(PDDocument document, PDPageContentStream contentStream, Map<ImageData, PDImageXObject> images,
+                Map<Integer, PDExtendedGraphicsState> alphaStates) {
+            this.document = document;
+            this.contentStream = contentStream;
+            this.images = images;
+            this.alphaStates = alphaStates;
+        }
+
+        @Override
+        public void fill(PathData path, RGB color, int alpha, boolean evenOdd, float[] clip) throws IOException {
+            begin(alpha, clip);
+            contentStream.setNonStrokingColor(color.red, color.green, color.blue);
+            addPath(path);
+            if (evenOdd) {
+                contentStream.fillEvenOdd();
             } else {
-                page = new PDPage(new PDRectangle(pageRectangle.getHeight(), pageRectangle.getWidth()));
+                contentStream.fill();
+            }
+            contentStream.restoreGraphicsState();
+        }
+
+        @Override
+        public void stroke(PathData path, RGB color, int alpha, float lineWidth, float[] dash, float[] clip) throws IOException {
+            begin(alpha, clip);
+            contentStream.setStrokingColor(color.red, color.green, color.blue);
+            contentStream.setLineWidth(lineWidth);
+            if (dash != null) {
+                contentStream.setLineDashPattern(dash, 0);
+            }
+            addPath(path);
+            contentStream.stroke();
+            contentStream.restoreGraphicsState();
+        }
+
+        @Override
+        public void drawImage(ImageData imageData, float[] bounds, float[] clip) throws IOException {
+            PDImageXObject image = images.get(imageData);
+            if (image == null) {
+                image = LosslessFactory.createFromImage(document, VectorGraphics.toBufferedImage(imageData));
+                images.put(imageData, image);
+            }
+            begin(255, clip);
+            // image is flipped back because of diagram y axis
+            contentStream.drawImage(image, new Matrix(bounds[2], 0, 0, -bounds[3], bounds[0], bounds[1] + bounds[3]));
+            contentStream.restoreGraphicsState();
+        }
+
+        private void begin(int alpha, float[] clip) throws IOException {
+            contentStream.saveGraphicsState();
+            if (clip != null) {
+                contentStream.addRect(clip[0], clip[1], clip[2], clip[3]);
+                contentStream.clip();
             }
-            Point dpi = Display.getDefault().getDPI();
-            pageRectangle = page.getCropBox();
-            PDRectangle imgRectangle = new PDRectangle(img.getWidth() * 1.0f / dpi.x * POINTS_PER_INCH, img.getHeight() * 1.0f / dpi.y * POINTS_PER_INCH);
-            if (imgRectangle.getWidth() > pageRectangle.getWidth()) {
-                imgRectangle = new PDRectangle(pageRectangle.getWidth(), pageRectangle.getWidth() / ratio);
+            if (alpha < 255) {
+                PDExtendedGraphicsState graphicsState = alphaStates.get(alpha);
+                if (graphicsState == null) {
+                    graphicsState = new PDExtendedGraphicsState();
+                    graphicsState.setNonStrokingAlphaConstant(alpha / 255f);
+                    graphicsState.setStrokingAlphaConstant(alpha / 255f);
+                    alphaStates.put(alpha, graphicsState);
+                }
+                contentStream.setGraphicsStateParameters(graphicsState);
             }
-            if (imgRectangle.getHeight() > pageRectangle.getHeight()) {
-                imgRectangle = new PDRectangle(pageRectangle.getHeight() * ratio, pageRectangle.getHeight());
+        }
+
+        private void addPath(PathData path) throws IOException {
+            float[] points = path.points;
+            float x = 0;
+            float y = 0;
+            int i = 0;
+            for (byte type : path.types) {
+                switch (type) {
+                case SWT.PATH_MOVE_TO:
+                    x = points[i++];
+                    y = points[i++];
+                    contentStream.moveTo(x, y);
+                    break;
+                case SWT.PATH_LINE_TO:
+                    x = points[i++];
+                    y = points[i++];
+                    contentStream.lineTo(x, y);
+                    break;
+                case SWT.PATH_CUBIC_TO:
+                    contentStream.curveTo(points[i], points[i + 1], points[i + 2], points[i + 3], points[i + 4], points[i + 5]);
+                    x = points[i + 4];
+                    y = points[i + 5];
+                    i += 6;
+                    break;
+                case SWT.PATH_QUAD_TO:
+                    // quadratic curve is converted to cubic one
+                    float qx = points[i];
+                    float qy = points[i + 1];
+                    float endX = points[i + 2];
+                    float endY = points[i + 3];
+                    contentStream.curveTo(x + 2 * (qx - x) / 3, y + 2 * (qy - y) / 3, endX + 2 * (qx - endX) / 3, endY + 2 * (qy - endY) / 3, endX,
+                            endY);
+                    x = endX;
+                    y = endY;
+                    i += 4;
+                    break;
+                case SWT.PATH_CLOSE:
+                    contentStream.closePath();
+                    break;
+                }
             }
-            document.addPage(page);
-            PDPageContentStream contentStream = new PDPageContentStream(document, page);
-            contentStream.drawImage(img, pageRectangle.getLowerLeftX() + (pageRectangle.getWidth() - imgRectangle.getWidth()) / 2
-                    , pageRectangle.getLowerLeftY() + (pageRectangle.getHeight() - imgRectangle.getHeight()) / 2
-                    , imgRectangle.getWidth(), imgRectangle.getHeight());
-            contentStream.close();
-            document.save(filePath);
-            document.close();
         }
     }
-    
+
 }
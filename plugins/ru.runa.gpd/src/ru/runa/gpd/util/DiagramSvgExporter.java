@@ -0,0 +1,163 @@
+package ru.runa.gpd.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Base64;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PathData;
+import org.eclipse.swt.graphics.RGB;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import ru.runa.gpd.editor.ProcessEditorBase;
+import ru.runa.gpd.editor.gef.VectorGraphics;
+
+public class DiagramSvgExporter {
+
+    public static void go(ProcessEditorBase editor, String filePath) throws Exception {
+        VectorGraphics graphics = VectorGraphics.paint(editor.getGraphicalViewer());
+        SvgCanvas canvas = new SvgCanvas();
+        graphics.replay(canvas);
+        Files.write(canvas.toSvg(graphics.getWidth(), graphics.getHeight()), new File(filePath), Charsets.UTF_8);
+    }
+
+    private static class SvgCanvas implements VectorGraphics.Canvas {
+        private final StringBuilder defs = new StringBuilder();
+        private final StringBuilder body = new StringBuilder();
+        private final Map<String, String> clipIds = Maps.newHashMap();
+        private final Map<ImageData, String> imageIds = new IdentityHashMap<>();
+
+        @Override
+        public void fill(PathData path, RGB color, int alpha, boolean evenOdd, float[] clip) {
+            begin(clip);
+            body.append("<path d=\"").append(toPathString(path)).append("\" fill=\"").append(toColorString(color)).append("\"");
+            if (evenOdd) {
+                body.append(" fill-rule=\"evenodd\"");
+            }
+            if (alpha < 255) {
+                body.append(" fill-opacity=\"").append(format(alpha / 255f)).append("\"");
+            }
+            body.append("/>");
+            end(clip);
+        }
+
+        @Override
+        public void stroke(PathData path, RGB color, int alpha, float lineWidth, float[] dash, float[] clip) {
+            begin(clip);
+            body.append("<path d=\"").append(toPathString(path)).append("\" fill=\"none\" stroke=\"").append(toColorString(color));
+            body.append("\" stroke-width=\"").append(format(lineWidth)).append("\"");
+            if (alpha < 255) {
+                body.append(" stroke-opacity=\"").append(format(alpha / 255f)).append("\"");
+            }
+            if (dash != null && dash.length > 0) {
+                body.append(" stroke-dasharray=\"");
+                for (int i = 0; i < dash.length; i++) {
+                    body.append(i > 0 ? "," : "").append(format(dash[i]));
+                }
+                body.append("\"");
+            }
+            body.append("/>");
+            end(clip);
+        }
+
+        @Override
+        public void drawImage(ImageData imageData, float[] bounds, float[] clip) {
+            String id = imageIds.get(imageData);
+            if (id == null) {
+                id = "i" + imageIds.size();
+                ImageLoader imageLoader = new ImageLoader();
+                imageLoader.data = new ImageData[] { imageData };
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                imageLoader.save(out, SWT.IMAGE_PNG);
+                defs.append("<image id=\"").append(id).append("\" width=\"").append(imageData.width).append("\" height=\"").append(imageData.height);
+                defs.append("\" xlink:href=\"data:image/png;base64,").append(Base64.getEncoder().encodeToString(out.toByteArray())).append("\"/>\n");
+                imageIds.put(imageData, id);
+            }
+            begin(clip);
+            body.append("<use xlink:href=\"#").append(id).append("\" transform=\"translate(").append(format(bounds[0])).append(" ");
+            body.append(format(bounds[1])).append(") scale(").append(format(bounds[2] / imageData.width)).append(" ");
+            body.append(format(bounds[3] / imageData.height)).append(")\"/>");
+            end(clip);
+        }
+
+        private void begin(float[] clip) {
+            if (clip != null) {
+                String key = format(clip[0]) + " " + format(clip[1]) + " " + format(clip[2]) + " " + format(clip[3]);
+                String id = clipIds.get(key);
+                if (id == null) {
+                    id = "c" + clipIds.size();
+                    defs.append("<clipPath id=\"").append(id).append("\"><rect x=\"").append(format(clip[0])).append("\" y=\"").append(format(clip[1]));
+                    defs.append("\" width=\"").append(format(clip[2])).append("\" height=\"").append(format(clip[3])).append("\"/></clipPath>\n");
+                    clipIds.put(key, id);
+                }
+                body.append("<g clip-path=\"url(#").append(id).append(")\">");
+            }
+        }
+
+        private void end(float[] clip) {
+            if (clip != null) {
+                body.append("</g>");
+            }
+            body.append("\n");
+        }
+
+        private String toSvg(int width, int height) {
+            StringBuilder svg = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"").append(width);
+            svg.append("\" height=\"").append(height).append("\" viewBox=\"0 0 ").append(width).append(" ").append(height).append("\">\n");
+            svg.append("<defs>\n").append(defs).append("</defs>\n");
+            svg.append(body);
+            svg.append("</svg>\n");
+            return svg.toString();
+        }
+
+        private static String toPathString(PathData path) {
+            StringBuilder d = new StringBuilder();
+            float[] points = path.points;
+            int i = 0;
+            for (byte type : path.types) {
+                switch (type) {
+                case SWT.PATH_MOVE_TO:
+                    d.append("M").append(format(points[i++])).append(" ").append(format(points[i++]));
+                    break;
+                case SWT.PATH_LINE_TO:
+                    d.append("L").append(format(points[i++])).append(" ").append(format(points[i++]));
+                    break;
+                case SWT.PATH_CUBIC_TO:
+                    d.append("C");
+                    for (int j = 0; j < 6; j++) {
+                        d.append(j > 0 ? " " : "").append(format(points[i++]));
+                    }
+                    break;
+                case SWT.PATH_QUAD_TO:
+                    d.append("Q");
+                    for (int j = 0; j < 4; j++) {
+                        d.append(j > 0 ? " " : "").append(format(points[i++]));
+                    }
+                    break;
+                case SWT.PATH_CLOSE:
+                    d.append("Z");
+                    break;
+                }
+            }
+            return d.toString();
+        }
+
+        private static String toColorString(RGB color) {
+            return String.format("#%02x%02x%02x", color.red, color.green, color.blue);
+        }
+
+        private static String format(float value) {
+            float rounded = Math.round(value * 100) / 100f;
+            return rounded == (int) rounded ? String.valueOf((int) rounded) : String.valueOf(rounded);
+        }
+    }
+
+}
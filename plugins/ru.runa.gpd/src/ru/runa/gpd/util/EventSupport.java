@@ -1,38 +1,169 @@
 package ru.runa.gpd.util;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.List;
+import java.util.Map;
 
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Listener list is created with the first listener, most model elements never get one.
+ *
+ * Notifications can be deferred with {@link #startBatch()} / {@link #finishBatch()} (or {@link #batch(Runnable)}) for bulk model changes.
+ */
 public class EventSupport {
+    private static final ThreadLocal<Batch> batches = new ThreadLocal<Batch>();
     private final Object sourceBean;
     private PropertyChangeSupport listeners;
 
     public EventSupport(Object sourceBean) {
         this.sourceBean = sourceBean;
-        initPropertyChangeSupport();
     }
 
     public EventSupport() {
         this.sourceBean = this;
-        initPropertyChangeSupport();
-    }
-
-    private void initPropertyChangeSupport() {
-        listeners = new PropertyChangeSupport(sourceBean);
     }
 
     public void firePropertyChange(String propName, Object old, Object newValue) {
-        listeners.firePropertyChange(propName, old, newValue);
+        Batch batch = batches.get();
+        if (batch != null) {
+            batch.add(this, new PropertyChangeEvent(sourceBean, propName, old, newValue));
+        } else if (listeners != null) {
+            listeners.firePropertyChange(propName, old, newValue);
+        }
     }
 
     public void addPropertyChangeListener(PropertyChangeListener listener) {
-        // duplicates
-        removePropertyChangeListener(listener);
+        if (listeners == null) {
+            listeners = new PropertyChangeSupport(sourceBean);
+        } else {
+            // duplicates
+            listeners.removePropertyChangeListener(listener);
+        }
         listeners.addPropertyChangeListener(listener);
     }
 
     public void removePropertyChangeListener(PropertyChangeListener listener) {
-        listeners.removePropertyChangeListener(listener);
+        if (listeners != null) {
+            listeners.removePropertyChangeListener(listener);
+        }
+    }
+
+    /**
+     * Starts deferring notifications in the current thread. Batches can be nested, events are fired when the outermost batch is finished. Consecutive
+     * changes of the same property of one source are merged into one event (first old value, last new value).
+     * {@link CompositePropertyChangeListener}s receive all their events at once in {@link CompositePropertyChangeEvent}, other listeners receive
+     * them one by one.
+     */
+    public static void startBatch() {
+        Batch batch = batches.get();
+        if (batch == null) {
+            batches.set(new Batch());
+        } else {
+            batch.depth++;
+        }
+    }
+
+    /**
+     * Must be called in finally block for each {@link #startBatch()}.
+     */
+    public static void finishBatch() {
+        Batch batch = batches.get();
+        if (batch == null) {
+            throw new IllegalStateException("Batch is not started");
+        }
+        if (batch.depth > 0) {
+            batch.depth--;
+        } else {
+            batches.remove();
+            batch.fire();
+        }
+    }
+
+    public static void batch(Runnable runnable) {
+        startBatch();
+        try {
+            runnable.run();
+        } finally {
+            finishBatch();
+        }
+    }
+
+    private static class Batch {
+        private int depth;
+        private final List<DeferredEvent> events = Lists.newArrayList();
+
+        private void add(EventSupport eventSupport, PropertyChangeEvent event) {
+            DeferredEvent deferredEvent = new DeferredEvent(eventSupport, event);
+            DeferredEvent lastEvent = events.isEmpty() ? null : events.get(events.size() - 1);
+            // only directly following A -> B, B -> C is merged to A -> C, so order relative to other events is kept; element additions like
+            // null -> X, null -> Y are kept
+            if (deferredEvent.equals(lastEvent) && event.getOldValue() != null && Objects.equal(event.getOldValue(), lastEvent.event.getNewValue())) {
+                lastEvent.event = new PropertyChangeEvent(event.getSource(), event.getPropertyName(), lastEvent.event.getOldValue(),
+                        event.getNewValue());
+                return;
+            }
+            events.add(deferredEvent);
+        }
+
+        private void fire() {
+            Map<CompositePropertyChangeListener, List<PropertyChangeEvent>> compositeEvents = Maps.newLinkedHashMap();
+            for (DeferredEvent deferredEvent : events) {
+                PropertyChangeEvent event = deferredEvent.event;
+                if (deferredEvent.eventSupport.listeners == null) {
+                    continue;
+                }
+                if (event.getOldValue() != null && event.getOldValue().equals(event.getNewValue())) {
+                    continue;
+                }
+                for (PropertyChangeListener listener : deferredEvent.eventSupport.listeners.getPropertyChangeListeners()) {
+                    if (listener instanceof CompositePropertyChangeListener) {
+                        List<PropertyChangeEvent> listenerEvents = compositeEvents.get(listener);
+                        if (listenerEvents == null) {
+                            listenerEvents = Lists.newArrayList();
+                            compositeEvents.put((CompositePropertyChangeListener) listener, listenerEvents);
+                        }
+                        listenerEvents.add(event);
+                    } else {
+                        listener.propertyChange(event);
+                    }
+                }
+            }
+            for (Map.Entry<CompositePropertyChangeListener, List<PropertyChangeEvent>> entry : compositeEvents.entrySet()) {
+                entry.getKey().propertyChange(new CompositePropertyChangeEvent(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Identity of event source and property name.
+     */
+    private static class DeferredEvent {
+        private final EventSupport eventSupport;
+        private PropertyChangeEvent event;
+
+        private DeferredEvent(EventSupport eventSupport, PropertyChangeEvent event) {
+            this.eventSupport = eventSupport;
+            this.event = event;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DeferredEvent)) {
+                return false;
+            }
+            DeferredEvent other = (DeferredEvent) obj;
+            return eventSupport == other.eventSupport && Objects.equal(event.getPropertyName(), other.event.getPropertyName());
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(eventSupport) * 31 + Objects.hashCode(event.getPropertyName());
+        }
     }
 
 }
@@ -0,0 +1,136 @@
+package ru.runa.gpd.util;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import ru.runa.gpd.ProcessCache;
+import ru.runa.gpd.lang.model.BotTask;
+import ru.runa.gpd.lang.model.BotTaskType;
+import ru.runa.gpd.lang.model.Delegable;
+import ru.runa.gpd.lang.model.GraphElement;
+import ru.runa.gpd.lang.model.ProcessDefinition;
+import ru.runa.gpd.lang.model.Subprocess;
+import ru.runa.gpd.lang.model.TaskState;
+import ru.runa.wfe.datasource.DataSourceStuff;
+
+/**
+ * References from process definitions to subprocesses, global sections, bot tasks and data sources. Found in {@link ProcessCache}, so definitions of all projects
+ * and embedded subprocess definitions are taken into account. Results are ordered by definition file path.
+ */
+public class ProcessDependencies {
+
+    /**
+     * @return definitions with not embedded subprocess nodes referencing the process
+     */
+    public static Map<ProcessDefinition, List<Subprocess>> findSubprocessReferences(String processName) {
+        Map<ProcessDefinition, List<Subprocess>> result = Maps.newLinkedHashMap();
+        for (ProcessDefinition definition : getAllProcessDefinitions()) {
+            List<Subprocess> subprocesses = findSubprocessReferences(definition, processName);
+            if (!subprocesses.isEmpty()) {
+                result.put(definition, subprocesses);
+            }
+        }
+        return result;
+    }
+
+    public static List<Subprocess> findSubprocessReferences(ProcessDefinition definition, String processName) {
+        List<Subprocess> result = Lists.newArrayList();
+        for (Subprocess subprocess : definition.getChildrenRecursive(Subprocess.class)) {
+            if (!subprocess.isEmbedded() && Objects.equal(processName, subprocess.getSubProcessName())) {
+                result.add(subprocess);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Global section is a process folder which name starts with '.', its swimlanes are visible to processes located in the section parent folder
+     * and its subfolders.
+     *
+     * @return definitions using globals of the section
+     */
+    public static List<ProcessDefinition> findGlobalSectionReferences(IFolder globalSectionFolder) {
+        List<ProcessDefinition> result = Lists.newArrayList();
+        IContainer sectionParent = globalSectionFolder.getParent();
+        for (ProcessDefinition definition : getAllProcessDefinitions()) {
+            IFile definitionFile = definition.getFile();
+            if (definition.isUseGlobals() && sectionParent.getFullPath().isPrefixOf(definitionFile.getFullPath())
+                    && !globalSectionFolder.getFullPath().isPrefixOf(definitionFile.getFullPath())) {
+                result.add(definition);
+            }
+        }
+        return result;
+    }
+
+    public static List<ProcessDefinition> findBotTaskReferences(String botName, BotTask botTask) {
+        List<ProcessDefinition> result = Lists.newArrayList();
+        for (ProcessDefinition definition : getAllProcessDefinitions()) {
+            for (TaskState taskState : definition.getChildren(TaskState.class)) {
+                boolean matches;
+                if (botTask.getType() == BotTaskType.SIMPLE) {
+                    matches = Objects.equal(botTask.getName(), taskState.getName()) && Objects.equal(botName, taskState.getSwimlaneBotName());
+                } else {
+                    matches = taskState.getBotTaskLink() != null && Objects.equal(botTask.getName(), taskState.getBotTaskLink().getBotTaskName());
+                }
+                if (matches) {
+                    result.add(definition);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return definitions with handlers configured to use the data source
+     */
+    public static List<ProcessDefinition> findDataSourceReferences(String dataSourceName) {
+        // data source path is stored as attribute value or element text
+        Pattern pattern = Pattern.compile(Pattern.quote(DataSourceStuff.PATH_PREFIX_DATA_SOURCE + dataSourceName) + "(?=[\"'<])");
+        List<ProcessDefinition> result = Lists.newArrayList();
+        for (ProcessDefinition definition : getAllProcessDefinitions()) {
+            for (GraphElement element : definition.getChildrenRecursive(GraphElement.class)) {
+                if (element instanceof Delegable) {
+                    String configuration = ((Delegable) element).getDelegationConfiguration();
+                    if (configuration != null && pattern.matcher(configuration).find()) {
+                        result.add(definition);
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return definition names, one per line
+     */
+    public static String toString(Collection<ProcessDefinition> definitions) {
+        StringBuilder result = new StringBuilder();
+        for (ProcessDefinition definition : definitions) {
+            if (result.length() > 0) {
+                result.append("\n");
+            }
+            result.append(definition.getName());
+        }
+        return result.toString();
+    }
+
+    private static List<ProcessDefinition> getAllProcessDefinitions() {
+        List<Map.Entry<IFile, ProcessDefinition>> entries = Lists.newArrayList(ProcessCache.getAllProcessDefinitionsMap().entrySet());
+        Collections.sort(entries, (o1, o2) -> o1.getKey().getFullPath().toString().compareTo(o2.getKey().getFullPath().toString()));
+        List<ProcessDefinition> definitions = Lists.newArrayListWithExpectedSize(entries.size());
+        for (Map.Entry<IFile, ProcessDefinition> entry : entries) {
+            definitions.add(entry.getValue());
+        }
+        return definitions;
+    }
+}
@@ -0,0 +1,156 @@
+package ru.runa.gpd.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight registry of timers for the main hot paths (parsing, saving, validation, search, templates, server calls).
+ *
+ * Usage: <code>long start = StudioMetrics.start(); try { ... } finally { StudioMetrics.stop(name, start); }</code>
+ *
+ * While disabled {@link #start()} returns 0 and {@link #stop(String, long)} returns immediately, so the instrumented code only pays for one
+ * volatile read. Can be enabled at startup with -Dru.runa.gpd.metrics=true or from the Studio metrics view.
+ */
+public class StudioMetrics {
+    public static final String PARSE_PROCESS_DEFINITION = "process.parse";
+    public static final String SAVE_PROCESS_DEFINITION = "process.save";
+    public static final String VALIDATE_PROCESS_DEFINITION = "process.validate";
+    public static final String SEARCH = "search.";
+    public static final String TEMPLATE_PROCESS = "template.process";
+    public static final String SERVER_CALL = "server.";
+    /**
+     * histogram bucket i counts durations in [2^(i-1), 2^i) milliseconds, last bucket is open
+     */
+    public static final int HISTOGRAM_SIZE = 16;
+    private static volatile boolean enabled = Boolean.getBoolean("ru.runa.gpd.metrics");
+    private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StudioMetrics.enabled = enabled;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(String name, long start) {
+        if (start == 0 || !enabled) {
+            return;
+        }
+        getTimer(name).record(System.nanoTime() - start);
+    }
+
+    public static void increment(String name) {
+        if (!enabled) {
+            return;
+        }
+        getTimer(name).record(0);
+    }
+
+    private static Timer getTimer(String name) {
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            Timer newTimer = new Timer(name);
+            timer = timers.putIfAbsent(name, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+            }
+        }
+        return timer;
+    }
+
+    public static List<Timer> getTimers() {
+        List<Timer> list = new ArrayList<Timer>(timers.values());
+        Collections.sort(list, new Comparator<Timer>() {
+            @Override
+            public int compare(Timer o1, Timer o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        return list;
+    }
+
+    public static void reset() {
+        timers.clear();
+    }
+
+    public static String toCsv() {
+        StringBuilder csv = new StringBuilder("name;count;total ms;average ms;max ms");
+        for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+            if (i == HISTOGRAM_SIZE - 1) {
+                csv.append(";>=").append(1L << (i - 1)).append(" ms");
+            } else {
+                csv.append(";<").append(1L << i).append(" ms");
+            }
+        }
+        csv.append("\n");
+        for (Timer timer : getTimers()) {
+            csv.append(timer.getName()).append(";").append(timer.getCount()).append(";").append(timer.getTotalMillis()).append(";");
+            csv.append(timer.getAverageMillis()).append(";").append(timer.getMaxMillis());
+            for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+                csv.append(";").append(timer.getHistogramValue(i));
+            }
+            csv.append("\n");
+        }
+        return csv.toString();
+    }
+
+    public static class Timer {
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_SIZE);
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        private void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+            long millis = nanos / 1000000;
+            int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            histogram.incrementAndGet(Math.min(bucket, HISTOGRAM_SIZE - 1));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalMillis() {
+            return totalNanos.get() / 1000000;
+        }
+
+        public long getAverageMillis() {
+            long count = getCount();
+            return count == 0 ? 0 : totalNanos.get() / count / 1000000;
+        }
+
+        public long getMaxMillis() {
+            return maxNanos.get() / 1000000;
+        }
+
+        public long getHistogramValue(int bucket) {
+            return histogram.get(bucket);
+        }
+    }
+}
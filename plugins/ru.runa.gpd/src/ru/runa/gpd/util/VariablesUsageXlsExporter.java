@@ -17,12 +17,16 @@ import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 
 import ru.runa.gpd.Localization;
 import ru.runa.gpd.PluginLogger;
+import ru.runa.gpd.ProcessCache;
 import ru.runa.gpd.lang.model.FormNode;
 import ru.runa.gpd.lang.model.NamedGraphElement;
 import ru.runa.gpd.lang.model.ProcessDefinition;
@@ -35,81 +39,183 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+/**
+ * Each export uses own exporter instance which holds workbook and its shared cell styles, so concurrent exports do not interfere.
+ */
 public class VariablesUsageXlsExporter {
-    
-    private static List<Variable> variables;
-    private static Set<Variable> usedVariables = Sets.newHashSet();
-    private static Map<String, String[]> componentParamAccess = Maps.newHashMap();
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+    private final Map<String, String[]> componentParamAccess = loadComponentParamAccess();
+    private final HSSFWorkbook book = new HSSFWorkbook();
+    private final Set<String> sheetNames = Sets.newHashSet();
+    private final HSSFCellStyle headerStyle;
+    private final HSSFCellStyle rotatedStyle;
+    private final HSSFCellStyle unusedRotatedStyle;
+    private final HSSFCellStyle centeredStyle;
+    private final HSSFCellStyle unusedStyle;
+    private HSSFSheet summarySheet;
 
-    static {
+    private VariablesUsageXlsExporter() {
+        headerStyle = book.createCellStyle();
+        headerStyle.setWrapText(true);
+        headerStyle.setAlignment(CellStyle.ALIGN_CENTER);
+        headerStyle.setVerticalAlignment(CellStyle.VERTICAL_CENTER);
+        rotatedStyle = book.createCellStyle();
+        rotatedStyle.setRotation((short) 90);
+        rotatedStyle.setAlignment(CellStyle.ALIGN_CENTER);
+        unusedRotatedStyle = book.createCellStyle();
+        unusedRotatedStyle.cloneStyleFrom(rotatedStyle);
+        unusedRotatedStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
+        unusedRotatedStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        centeredStyle = book.createCellStyle();
+        centeredStyle.setAlignment(CellStyle.ALIGN_CENTER);
+        unusedStyle = book.createCellStyle();
+        unusedStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
+        unusedStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+    }
+
+    public static void go(ProcessDefinition definition, String filePath) throws Exception {
+        try (OutputStream os = new FileOutputStream(filePath)) {
+            go(definition, os);
+        }
+    }
+
+    public static void go(ProcessDefinition definition, OutputStream os) throws Exception {
+        VariablesUsageXlsExporter exporter = new VariablesUsageXlsExporter();
+        exporter.addProcessDefinition(definition);
+        exporter.write(os);
+    }
+
+    /**
+     * Exports variables usage of several process definitions: summary sheet goes first, then sheets of each process. Definitions are loaded
+     * one by one, form sources are released after the process sheets are filled.
+     */
+    public static void go(List<IFile> definitionFiles, String filePath, IProgressMonitor monitor) throws Exception {
+        VariablesUsageXlsExporter exporter = new VariablesUsageXlsExporter();
+        exporter.createSummarySheet();
+        monitor.beginTask(Localization.getString("ExplorerTreeView.menu.label.reportVariablesUsage"), definitionFiles.size());
         try {
-            for (IExtension extension : Platform.getExtensionRegistry().getExtensionPoint("ru.runa.gpd.form.ftl.components").getExtensions()) {
-                for (IConfigurationElement componentElement : extension.getConfigurationElements()) {
+            for (IFile definitionFile : definitionFiles) {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                ProcessDefinition definition = ProcessCache.getProcessDefinition(definitionFile);
+                if (definition != null) {
+                    monitor.subTask(definition.getName());
                     try {
-                        List<String> access = Lists.newArrayList();
-                        for (IConfigurationElement paramElement : componentElement.getChildren()) {
-                            String varAccess = paramElement.getAttribute("variableAccess");
-                            access.add("NONE".equals(varAccess) ? "" : varAccess.substring(0, 1));
-                        }
-                        componentParamAccess.put(componentElement.getAttribute("id"), access.toArray(new String[] {}));
-                    } catch (Throwable th) {
-                        PluginLogger.logError("Unable to load FTL component " + componentElement, th);
+                        exporter.addProcessDefinition(definition);
+                    } catch (Exception e) {
+                        PluginLogger.logErrorWithoutDialog("Unable to export variables usage of " + definitionFile, e);
                     }
                 }
+                monitor.worked(1);
             }
-        } catch (Throwable th) {
-            PluginLogger.logError("Unable to load FTL components", th);
+            try (OutputStream os = new FileOutputStream(filePath)) {
+                exporter.write(os);
+            }
+        } finally {
+            monitor.done();
         }
     }
-    
-    public static void go(ProcessDefinition definition, String filePath) throws Exception {
-        try (OutputStream os = new FileOutputStream(filePath)) {
-            go(definition, os);
+
+    private void write(OutputStream os) throws Exception {
+        if (summarySheet != null) {
+            for (int i = 0; i < 5; i++) {
+                summarySheet.autoSizeColumn(i);
+            }
         }
-    }
-    
-    public static void go(ProcessDefinition definition, OutputStream os) throws Exception {
-        fillBook(definition).write(os);
+        book.write(os);
         os.flush();
     }
-    
-    private static HSSFWorkbook fillBook(ProcessDefinition pd) throws Exception {
-        variables = pd.getVariables(true, false);
+
+    private void addProcessDefinition(ProcessDefinition pd) throws Exception {
+        List<Variable> variables = pd.getVariables(true, false);
         Collections.sort(variables);
-        HSSFWorkbook book = new HSSFWorkbook();
-        fillSheet(book, pd);
+        Set<Variable> usedVariables = Sets.newHashSet();
+        List<HSSFSheet> sheets = Lists.newArrayList();
+        int[] formsCount = fillSheet(sheets, pd, variables, usedVariables);
         List<Subprocess> external = new ArrayList<>();
         for (Subprocess sp : pd.getChildren(Subprocess.class)) {
-             if (!sp.isEmbedded()) {
+            if (!sp.isEmbedded()) {
                 external.add(sp);
             }
         }
         if (external.size() > 0) {
-            fillSheet(book, external);
+            fillSheet(sheets, pd, external, variables, usedVariables);
         }
-        for (int i = 0; i < book.getNumberOfSheets(); i++) {
-            HSSFSheet sheet = book.getSheetAt(i);
-            HSSFCellStyle style = book.createCellStyle();
-            style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-            style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            HSSFCellStyle style2 = sheet.getWorkbook().createCellStyle();
-            style2.setAlignment(CellStyle.ALIGN_CENTER);
+        for (HSSFSheet sheet : sheets) {
             int rowNum = 1;
             for (Variable variable : variables) {
                 HSSFRow row = sheet.getRow(rowNum++);
                 HSSFCell cell = row.createCell(1);
-                cell.setCellStyle(style2);
+                cell.setCellStyle(centeredStyle);
                 if (!usedVariables.contains(variable)) {
-                    row.getCell(0).setCellStyle(style);
+                    row.getCell(0).setCellStyle(unusedStyle);
                     cell.setCellValue("N");
                 } else {
                     cell.setCellValue("Y");
                 }
             }
         }
-        return book;
+        if (summarySheet != null) {
+            HSSFRow row = summarySheet.createRow(summarySheet.getLastRowNum() + 1);
+            row.createCell(0).setCellValue(pd.getName());
+            row.createCell(1).setCellValue(variables.size());
+            row.createCell(2).setCellValue(variables.size() - usedVariables.size());
+            row.createCell(3).setCellValue(formsCount[0]);
+            row.createCell(4).setCellValue(formsCount[0] - formsCount[1]);
+        }
     }
-    
+
+    private void createSummarySheet() {
+        summarySheet = book.createSheet(getUniqueSheetName(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.summary")));
+        HSSFRow row = summarySheet.createRow(0);
+        String[] headers = { "process", "variables", "unusedVariables", "forms", "unusedForms" };
+        for (int i = 0; i < headers.length; i++) {
+            HSSFCell cell = row.createCell(i);
+            cell.setCellValue(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.summary." + headers[i]));
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    private HSSFSheet createSheet(List<HSSFSheet> sheets, String name) {
+        HSSFSheet sheet = book.createSheet(getUniqueSheetName(name));
+        sheets.add(sheet);
+        return sheet;
+    }
+
+    private String getUniqueSheetName(String name) {
+        String safeName = WorkbookUtil.createSafeSheetName(name);
+        String uniqueName = safeName;
+        for (int i = 2; !sheetNames.add(uniqueName.toLowerCase()); i++) {
+            String suffix = " (" + i + ")";
+            uniqueName = safeName.substring(0, Math.min(safeName.length(), MAX_SHEET_NAME_LENGTH - suffix.length())) + suffix;
+        }
+        return uniqueName;
+    }
+
+    private static Map<String, String[]> loadComponentParamAccess() {
+        Map<String, String[]> componentParamAccess = Maps.newHashMap();
+        try {
+            for (IExtension extension : Platform.getExtensionRegistry().getExtensionPoint("ru.runa.gpd.form.ftl.components").getExtensions()) {
+                for (IConfigurationElement componentElement : extension.getConfigurationElements()) {
+                    try {
+                        List<String> access = Lists.newArrayList();
+                        for (IConfigurationElement paramElement : componentElement.getChildren()) {
+                            String varAccess = paramElement.getAttribute("variableAccess");
+                            access.add("NONE".equals(varAccess) ? "" : varAccess.substring(0, 1));
+                        }
+                        componentParamAccess.put(componentElement.getAttribute("id"), access.toArray(new String[] {}));
+                    } catch (Throwable th) {
+                        PluginLogger.logError("Unable to load FTL component " + componentElement, th);
+                    }
+                }
+            }
+        } catch (Throwable th) {
+            PluginLogger.logError("Unable to load FTL components", th);
+        }
+        return componentParamAccess;
+    }
+
     private static String asSortValue(String phrase) {
         // #9-9A-A.9-9A-A.9-9A-A. AAAAA...
         phrase = phrase.trim();
@@ -185,45 +291,39 @@ public class VariablesUsageXlsExporter {
         return formMap.values();
     }
 
-    private static List<String> fillHeader(HSSFSheet sheet, NamedGraphElement ge) throws Exception {
+    private List<String> fillHeader(HSSFSheet sheet, NamedGraphElement ge) throws Exception {
         HSSFRow row = sheet.createRow(0);
         HSSFCell cell = row.createCell(0);
         cell.setCellValue(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.header1"));
-        HSSFCellStyle style = sheet.getWorkbook().createCellStyle();
-        style.setWrapText(true);
-        style.setAlignment(CellStyle.ALIGN_CENTER);
-        style.setVerticalAlignment(CellStyle.VERTICAL_CENTER);
-        cell.setCellStyle(style);
+        cell.setCellStyle(headerStyle);
         Collection<FormNode> formNodes = gatherForms(ge, null);
         cell = row.createCell(1);
         cell.setCellValue(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.variable_used"));
-        style = sheet.getWorkbook().createCellStyle();
-        style.setRotation((short) 90);
-        style.setAlignment(CellStyle.ALIGN_CENTER);
-        cell.setCellStyle(style);
+        cell.setCellStyle(rotatedStyle);
         List<String> forms = new ArrayList<>();
         int colNum = 2;
         for (FormNode form : formNodes) {
             cell = row.createCell(colNum++);
             cell.setCellValue((form instanceof StartState && Strings.isNullOrEmpty(form.getName()) ?
                     Localization.getString("DesignerVariableEditorPage.report.variablesUsage.start") : "") + form.getLabel());
-            cell.setCellStyle(style);
+            cell.setCellStyle(rotatedStyle);
             forms.add(IOUtils.readStream(ge.getProcessDefinition().getFile().getParent().getFolder(null).getFile(form.getFormFileName()).getContents()));
         }
         return forms;
     }
 
-    private static void fillSheet(HSSFWorkbook book, NamedGraphElement ge) throws Exception {
-        HSSFSheet sheet = book.createSheet(ge.getName());
-        Set<String> usedForms = Sets.newHashSet();
+    /**
+     * @return forms count and used forms count
+     */
+    private int[] fillSheet(List<HSSFSheet> sheets, NamedGraphElement ge, List<Variable> variables, Set<Variable> usedVariables) throws Exception {
+        HSSFSheet sheet = createSheet(sheets, ge.getName());
+        Set<Integer> usedForms = Sets.newHashSet();
         List<String> forms = fillHeader(sheet, ge);
         int rowNum = 1;
         for (Variable variable : variables) {
             HSSFRow row = sheet.createRow(rowNum++);
             HSSFCell cell = row.createCell(0);
             cell.setCellValue(variable.getName());
-            HSSFCellStyle style = book.createCellStyle();
-            style.setAlignment(CellStyle.ALIGN_CENTER);
             String search = "\"" + variable.getName() + "\"";
             for (int i = 0; i < forms.size(); i++) {
                 String form = forms.get(i);
@@ -252,75 +352,72 @@ public class VariablesUsageXlsExporter {
                         varAsccess += access;
                     }
                     usedVariables.add(variable);
-                    usedForms.add(form);
+                    usedForms.add(i);
                     index1 = index2 + 1;
                     index2 = form.indexOf(search, index1);
                 }
                 cell = row.createCell(i + 2);
                 cell.setCellValue(varAsccess);
-                cell.setCellStyle(style);
+                cell.setCellStyle(centeredStyle);
             }
         }
+        HSSFRow header = sheet.getRow(0);
         for (int i = 0; i < forms.size(); i++) {
-            String form = forms.get(i);
-            if (!usedForms.contains(form)) {
-                HSSFRow header = sheet.getRow(0);
-                HSSFCellStyle style = header.getCell(i + 2).getCellStyle();
-                style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-                style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            if (!usedForms.contains(i)) {
+                header.getCell(i + 2).setCellStyle(unusedRotatedStyle);
             }
             sheet.setColumnWidth(i + 2, 5 * 256);
         }
         sheet.autoSizeColumn(0);
         sheet.autoSizeColumn(1);
+        return new int[] { forms.size(), usedForms.size() };
     }
-    
-    private static void fillSheet(HSSFWorkbook book, List<Subprocess> subprocesses) throws Exception {
-        HSSFSheet sheet = book.createSheet(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.subprocesses"));
+
+    private void fillSheet(List<HSSFSheet> sheets, ProcessDefinition pd, List<Subprocess> subprocesses, List<Variable> variables,
+            Set<Variable> usedVariables) throws Exception {
+        String sheetName = Localization.getString("DesignerVariableEditorPage.report.variablesUsage.subprocesses");
+        if (summarySheet != null) {
+            sheetName = pd.getName() + " - " + sheetName;
+        }
+        HSSFSheet sheet = createSheet(sheets, sheetName);
         HSSFRow row = sheet.createRow(0);
         HSSFCell cell = row.createCell(0);
         cell.setCellValue(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.header2"));
-        HSSFCellStyle style = sheet.getWorkbook().createCellStyle();
-        style.setWrapText(true);
-        style.setAlignment(CellStyle.ALIGN_CENTER);
-        style.setVerticalAlignment(CellStyle.VERTICAL_CENTER);
-        cell.setCellStyle(style);
+        cell.setCellStyle(headerStyle);
         cell = row.createCell(1);
         cell.setCellValue(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.variable_used"));
-        style = sheet.getWorkbook().createCellStyle();
-        style.setRotation((short) 90);
-        style.setAlignment(CellStyle.ALIGN_CENTER);
-        cell.setCellStyle(style);
+        cell.setCellStyle(rotatedStyle);
         int colNum = 2;
         for (Subprocess subprocess : subprocesses) {
             cell = row.createCell(colNum++);
             cell.setCellValue(subprocess.getLabel());
-            cell.setCellStyle(style);
+            cell.setCellStyle(rotatedStyle);
         }
         int rowNum = 1;
         for (Variable variable : variables) {
             row = sheet.createRow(rowNum++);
             cell = row.createCell(0);
             cell.setCellValue(variable.getName());
-            style = book.createCellStyle();
-            style.setAlignment(CellStyle.ALIGN_CENTER);
         }
-        for (int i = 0; i < variables.size(); i++) {
-            Variable variable = variables.get(i);
-            for (int j = 0; j < subprocesses.size(); j++) {
-                Subprocess subprocess = subprocesses.get(j);
-                List<VariableMapping> varMap = subprocess.getVariableMappings();
+        for (int j = 0; j < subprocesses.size(); j++) {
+            List<VariableMapping> varMap = subprocesses.get(j).getVariableMappings();
+            boolean mapped = false;
+            for (int i = 0; i < variables.size(); i++) {
+                Variable variable = variables.get(i);
                 for (VariableMapping vm : varMap) {
                     if (vm.getName().equals(variable.getName())) {
                         sheet.getRow(i + 1).createCell(j + 2).setCellValue(vm.getMappedName() + ": " + vm.getUsage());
-                        sheet.autoSizeColumn(j + 2);
                         usedVariables.add(variable);
+                        mapped = true;
                     }
                 }
             }
+            if (mapped) {
+                sheet.autoSizeColumn(j + 2);
+            }
         }
         sheet.autoSizeColumn(0);
         sheet.autoSizeColumn(1);
     }
-    
+
 }
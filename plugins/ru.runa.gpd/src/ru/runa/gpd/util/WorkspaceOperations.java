@@ -4,22 +4,25 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.function.Consumer;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.io.SAXReader;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
@@ -35,6 +38,8 @@ import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.window.Window;
 import org.eclipse.jface.wizard.WizardDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IFileEditorInput;
@@ -56,14 +61,13 @@ import ru.runa.gpd.editor.graphiti.GraphitiProcessEditor;
 import ru.runa.gpd.extension.DelegableProvider;
 import ru.runa.gpd.extension.HandlerRegistry;
 import ru.runa.gpd.extension.bot.IBotFileSupportProvider;
+import ru.runa.gpd.extension.regulations.RegulationsUtil;
 import ru.runa.gpd.lang.Language;
 import ru.runa.gpd.lang.ProcessSerializer;
 import ru.runa.gpd.lang.model.BotTask;
-import ru.runa.gpd.lang.model.BotTaskType;
 import ru.runa.gpd.lang.model.ProcessDefinition;
 import ru.runa.gpd.lang.model.Subprocess;
 import ru.runa.gpd.lang.model.SubprocessDefinition;
-import ru.runa.gpd.lang.model.TaskState;
 import ru.runa.gpd.lang.par.ParContentProvider;
 import ru.runa.gpd.ui.custom.Dialogs;
 import ru.runa.gpd.ui.dialog.DataSourceDialog;
@@ -119,7 +123,15 @@ public class WorkspaceOperations {
                 } else {
                     throw new IllegalArgumentException("Unexpected " + resource);
                 }
-                if (Dialogs.confirm(Localization.getString(messageKey, resource.getName()))) {
+                String details = null;
+                if (folderResource && IOUtils.isProcessDefinitionFolder((IFolder) resource)) {
+                    details = getReferencesDetails("Delete.process.references", ProcessDependencies.findSubprocessReferences(resource.getName()).keySet());
+                    if (details == null && resource.getName().startsWith(".")) {
+                        details = getReferencesDetails("Delete.globalSection.references",
+                                ProcessDependencies.findGlobalSectionReferences((IFolder) resource));
+                    }
+                }
+                if (Dialogs.confirm(Localization.getString(messageKey, resource.getName()), details)) {
                     List<IFile> tmpFiles = new ArrayList<IFile>();
                     if (projectResource) {
                         tmpFiles.addAll(IOUtils.getProcessDefinitionFiles((IProject) resource));
@@ -156,6 +168,10 @@ public class WorkspaceOperations {
                             }
                         }
                     }
+                    for (IFile definitionFile : tmpFiles) {
+                        // savepoint could be added after the history is cleared
+                        ProcessEditorBase.joinSaveJobs(definitionFile.getParent());
+                    }
                     if (folderResource && IOUtils.isProcessDefinitionFolder((IFolder) resource)) {
                         ProcessSaveHistory.clear((IFolder) resource);
                     }
@@ -241,7 +257,28 @@ public class WorkspaceOperations {
             return;
         }
         String newName = dialog.getName();
+        if (oldDefinitionFolder.getName().startsWith(".")) {
+            String details = getReferencesDetails("Rename.globalSection.references",
+                    ProcessDependencies.findGlobalSectionReferences(oldDefinitionFolder));
+            if (details != null && !Dialogs.confirm(Localization.getString("RenameProcessDefinitionDialog.globalSection", oldName, newName), details)) {
+                return;
+            }
+        }
+        List<IFile> referencingFiles = Lists.newArrayList();
+        for (ProcessDefinition referencingDefinition : ProcessDependencies.findSubprocessReferences(oldName).keySet()) {
+            // own embedded subprocesses are moved together with the process
+            if (!Objects.equal(referencingDefinition.getFile().getParent(), oldDefinitionFolder)) {
+                referencingFiles.add(referencingDefinition.getFile());
+            }
+        }
+        boolean updateReferences = !referencingFiles.isEmpty()
+                && Dialogs.confirm(Localization.getString("RenameProcessDefinitionDialog.updateReferences", oldName, newName),
+                        getFileNames(referencingFiles));
         try {
+            // referencing editors are closed before the rename, so confirmed update can not be cancelled half way
+            if (updateReferences && !closeEditors(referencingFiles)) {
+                return;
+            }
             // Close ALL editors related to the process BEFORE renaiming it.
             IProject project = oldDefinitionFolder.getProject();
             IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
@@ -262,6 +299,7 @@ public class WorkspaceOperations {
                 // 2nd parameter save=false prevents "Save changed files?" dialog: they are saved anyway.
                 page.closeEditors(editorRefsToClose.toArray(new IEditorReference[editorRefsToClose.size()]), false);
             }
+            ProcessEditorBase.joinSaveJobs(oldDefinitionFolder);
             ProcessCache.processDefinitionWasDeleted(oldDefinitionFile);
             IPath newPath = oldDefinitionFolder.getParent().getFolder(new Path(newName)).getFullPath();
             IFolder newDefinitionFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(newPath);
@@ -274,6 +312,13 @@ public class WorkspaceOperations {
             ProcessSaveHistory.clear(oldDefinitionFolder);
             oldDefinitionFolder.delete(true, new NullProgressMonitor());
             refreshResource(newDefinitionFolder);
+            if (updateReferences) {
+                saveProcessDefinitions(referencingFiles, referencingDefinition -> {
+                    for (Subprocess subprocess : ProcessDependencies.findSubprocessReferences(referencingDefinition, oldName)) {
+                        subprocess.setSubProcessName(newName);
+                    }
+                });
+            }
         } catch (Exception e) {
             PluginLogger.logError(e);
         }
@@ -288,46 +333,30 @@ public class WorkspaceOperations {
         RenameProcessDefinitionDialog dialog = new RenameProcessDefinitionDialog(definition);
         dialog.setName(subprocessDefinition.getName());
         if (dialog.open() == IDialogConstants.OK_ID) {
+            String oldName = subprocessDefinition.getName();
             String newName = dialog.getName();
+            List<IFile> changedFiles = Lists.newArrayList();
+            if (!findSubprocesses(definition, oldName).isEmpty()) {
+                changedFiles.add(definition.getFile());
+            }
+            for (SubprocessDefinition subdefinition : definition.getEmbeddedSubprocesses().values()) {
+                if (subdefinition != subprocessDefinition && !findSubprocesses(subdefinition, oldName).isEmpty()) {
+                    changedFiles.add(subdefinition.getFile());
+                }
+            }
+            changedFiles.add(subdefinitionFile);
             try {
-                IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
-                IEditorPart editor = page.findEditor(new FileEditorInput(subdefinitionFile));
-                if (editor != null) {
-                    page.closeEditor(editor, false);
+                if (!closeEditors(changedFiles)) {
+                    return;
                 }
-
-                for (Subprocess sp : definition.getChildren(Subprocess.class)) {
-                    if (sp.getSubProcessName().equals(subprocessDefinition.getName())) {
-                        sp.setSubProcessName(newName);
-                        IFile definitionFile = IOUtils.getProcessDefinitionFile(definitionFolder);
-                        editor = page.findEditor(new FileEditorInput(definitionFile));
-                        if (editor != null) {
-                            page.closeEditor(editor, false);
-                        }
-                        saveProcessDefinition(definition);
-                        ProcessCache.invalidateProcessDefinition(definitionFile);
-                        break;
+                saveProcessDefinitions(changedFiles, changedDefinition -> {
+                    for (Subprocess subprocess : findSubprocesses(changedDefinition, oldName)) {
+                        subprocess.setSubProcessName(newName);
                     }
-                }
-                for (SubprocessDefinition subdefinition : definition.getEmbeddedSubprocesses().values()) {
-                    for (Subprocess sp : subdefinition.getChildren(Subprocess.class)) {
-                        if (sp.getSubProcessName().equals(subprocessDefinition.getName())) {
-                            sp.setSubProcessName(newName);
-                            IFile file = IOUtils.getFile(subdefinition.getId() + "." + ParContentProvider.PROCESS_DEFINITION_FILE_NAME);
-                            editor = page.findEditor(new FileEditorInput(file));
-                            if (editor != null) {
-                                page.closeEditor(editor, false);
-                            }
-                            saveProcessDefinition(subdefinition);
-                            ProcessCache.invalidateProcessDefinition(file);
-                            break;
-                        }
+                    if (Objects.equal(changedDefinition.getFile(), subdefinitionFile)) {
+                        changedDefinition.setName(newName);
                     }
-                }
-                subprocessDefinition.setName(newName);
-                
-                saveProcessDefinition(subprocessDefinition);
-                ProcessCache.invalidateProcessDefinition(subdefinitionFile);
+                });
                 refreshResource(definitionFolder);
             } catch (Exception e) {
                 PluginLogger.logError(e);
@@ -335,13 +364,86 @@ public class WorkspaceOperations {
         }
     }
 
+    private static List<Subprocess> findSubprocesses(ProcessDefinition definition, String subprocessName) {
+        List<Subprocess> result = Lists.newArrayList();
+        for (Subprocess subprocess : definition.getChildren(Subprocess.class)) {
+            if (Objects.equal(subprocessName, subprocess.getSubProcessName())) {
+                result.add(subprocess);
+            }
+        }
+        return result;
+    }
+
     public static void saveProcessDefinition(ProcessDefinition definition) throws Exception {
-        ProcessSerializer serializer = definition.getLanguage().getSerializer();
-        Document document = serializer.getInitialProcessDefinitionDocument(definition.getName(), null);
-        serializer.saveToXML(definition, document);
-        byte[] bytes = XmlUtil.writeXml(document);
-        ParContentProvider.saveAuxInfo(definition.getFile(), definition);
-        definition.getFile().setContents(new ByteArrayInputStream(bytes), true, false, null);
+        long start = StudioMetrics.start();
+        try {
+            ProcessSerializer serializer = definition.getLanguage().getSerializer();
+            Document document = serializer.getInitialProcessDefinitionDocument(definition.getName(), null);
+            serializer.saveToXML(definition, document);
+            byte[] bytes = XmlUtil.writeXml(document);
+            ParContentProvider.saveAuxInfo(definition.getFile(), definition);
+            definition.getFile().setContents(new ByteArrayInputStream(bytes), true, false, null);
+        } finally {
+            StudioMetrics.stop(StudioMetrics.SAVE_PROCESS_DEFINITION, start);
+        }
+    }
+
+    /**
+     * Closes editors of the definitions, unsaved changes are offered to be saved.
+     *
+     * @return false if user cancelled closing
+     */
+    private static boolean closeEditors(List<IFile> definitionFiles) throws PartInitException {
+        IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
+        List<IEditorReference> editorRefsToClose = Lists.newArrayList();
+        for (IEditorReference editorRef : page.getEditorReferences()) {
+            if (editorRef.getEditorInput() instanceof IFileEditorInput
+                    && definitionFiles.contains(((IFileEditorInput) editorRef.getEditorInput()).getFile())) {
+                editorRefsToClose.add(editorRef);
+            }
+        }
+        return editorRefsToClose.isEmpty() || page.closeEditors(editorRefsToClose.toArray(new IEditorReference[editorRefsToClose.size()]), true);
+    }
+
+    /**
+     * Applies the change to each definition and saves all of them in one workspace operation. Editors of the definitions must be closed, definitions
+     * are taken from the cache.
+     */
+    private static void saveProcessDefinitions(List<IFile> definitionFiles, Consumer<ProcessDefinition> change) throws CoreException {
+        ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) monitor -> {
+            for (IFile definitionFile : definitionFiles) {
+                ProcessDefinition definition = ProcessCache.getProcessDefinition(definitionFile);
+                change.accept(definition);
+                try {
+                    saveProcessDefinition(definition);
+                } catch (CoreException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new InternalApplicationException(e);
+                }
+            }
+        }, null);
+        for (IFile definitionFile : definitionFiles) {
+            ProcessCache.invalidateProcessDefinition(definitionFile);
+        }
+    }
+
+    private static String getReferencesDetails(String messageKey, Collection<ProcessDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return null;
+        }
+        return Localization.getString(messageKey) + "\n" + ProcessDependencies.toString(definitions);
+    }
+
+    private static String getFileNames(List<IFile> files) {
+        StringBuilder result = new StringBuilder();
+        for (IFile file : files) {
+            if (result.length() > 0) {
+                result.append("\n");
+            }
+            result.append(file.getFullPath());
+        }
+        return result.toString();
     }
 
     public static ProcessEditorBase openProcessDefinition(IFile definitionFile) {
@@ -408,6 +510,45 @@ public class WorkspaceOperations {
         dialog.open();
     }
 
+    public static void reportVariablesUsage(final IContainer container) {
+        FileDialog dialog = new FileDialog(PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(), SWT.SAVE);
+        dialog.setText(Localization.getString("DesignerVariableEditorPage.report.variablesUsage.dialog.title"));
+        dialog.setFileName(container.getName() + ".vars-usage.xls");
+        final String filePath = dialog.open();
+        if (filePath == null) {
+            return;
+        }
+        WorkspaceJob job = new WorkspaceJob(Localization.getString("ExplorerTreeView.menu.label.reportVariablesUsage")) {
+            @Override
+            public IStatus runInWorkspace(IProgressMonitor monitor) {
+                try {
+                    VariablesUsageXlsExporter.go(IOUtils.getProcessDefinitionFiles(container), filePath, monitor);
+                } catch (Exception e) {
+                    PluginLogger.logError(e);
+                }
+                return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+            }
+        };
+        job.setUser(true);
+        job.schedule();
+    }
+
+    public static void createRegulations(final IContainer container) {
+        WorkspaceJob job = new WorkspaceJob(Localization.getString("ExplorerTreeView.menu.label.createRegulations")) {
+            @Override
+            public IStatus runInWorkspace(IProgressMonitor monitor) {
+                try {
+                    RegulationsUtil.generate(IOUtils.getProcessDefinitionFiles(container), monitor);
+                } catch (Exception e) {
+                    PluginLogger.logError(e);
+                }
+                return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+            }
+        };
+        job.setUser(true);
+        job.schedule();
+    }
+
     public static void showProcessSaveHistory(IStructuredSelection selection) {
         new ProcessSaveHistoryDialog((IFolder) selection.getFirstElement()).open();
     }
@@ -606,7 +747,7 @@ public class WorkspaceOperations {
                 botFolder.copy(newPath, true, null);
                 botFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(newPath);
                 ResourcesPlugin.getWorkspace().getRoot().getFolder(oldPath).delete(true, null);
-                BotCache.reload();
+                BotCache.reload(botFolder.getProject());
             } catch (Exception e) {
                 PluginLogger.logError(e);
             }
@@ -620,9 +761,10 @@ public class WorkspaceOperations {
         if (dialog.open() == IDialogConstants.OK_ID) {
             IFolder botFolder = (IFolder) botTaskFile.getParent();
             BotTask botTask = BotCache.getBotTaskNotNull(botTaskFile);
-            List<String> dependentDefinitions = findDependentProcessDefinitions(botFolder, botTask);
+            List<ProcessDefinition> dependentDefinitions = ProcessDependencies.findBotTaskReferences(botFolder.getName(), botTask);
             if (dependentDefinitions.size() > 0) {
-                showDependentTasksDialog(dependentDefinitions);
+                Dialogs.error(Localization.getString("DependentTasksDialog.errorMessage"),
+                        getReferencesDetails("DependentTasksDialog.detailsMessage", dependentDefinitions));
                 return;
             }
 
@@ -640,39 +782,6 @@ public class WorkspaceOperations {
         }
     }
 
-    private static List<String> findDependentProcessDefinitions(IFolder botFolder, BotTask botTask) {
-        List<String> dependentDefinitions = new ArrayList<String>();
-        Set<ProcessDefinition> definitions = ProcessCache.getAllProcessDefinitions();
-        for (ProcessDefinition definition : definitions) {
-            for (TaskState taskState : definition.getChildren(TaskState.class)) {
-                if (botTask.getType() == BotTaskType.SIMPLE) {
-                    if (Objects.equal(botTask.getName(), taskState.getName())) {
-                        if (Objects.equal(botFolder.getName(), taskState.getSwimlaneBotName())) {
-                            dependentDefinitions.add(definition.getName());
-                            break;
-                        }
-                    }
-                } else {
-                    if (taskState.getBotTaskLink() != null && Objects.equal(botTask.getName(), taskState.getBotTaskLink().getBotTaskName())) {
-                        dependentDefinitions.add(definition.getName());
-                        break;
-                    }
-                }
-            }
-        }
-        return dependentDefinitions;
-    }
-
-    private static void showDependentTasksDialog(List<String> dependentDefinitions) {
-        StringBuffer detailsMessage = new StringBuffer();
-        detailsMessage.append(Localization.getString("DependentTasksDialog.detailsMessage"));
-        for (String processDefinitionName : dependentDefinitions) {
-            detailsMessage.append("\n");
-            detailsMessage.append(processDefinitionName);
-        }
-        Dialogs.error(Localization.getString("DependentTasksDialog.errorMessage"), detailsMessage.toString());
-    }
-
     public static void copyBotTask(IStructuredSelection selection) {
         CopyBotTaskWizard wizard = new CopyBotTaskWizard();
         wizard.init(PlatformUI.getWorkbench(), selection);
@@ -732,7 +841,12 @@ public class WorkspaceOperations {
         for (IResource resource : resources) {
             try {
                 resource.refreshLocal(IResource.DEPTH_ZERO, null);
-                if (Dialogs.confirm(Localization.getString("Delete.dataSource.message", resource.getName()))) {
+                String dataSourceName = resource.getName();
+                if (dataSourceName.endsWith(DataSourceStuff.DATA_SOURCE_FILE_SUFFIX)) {
+                    dataSourceName = dataSourceName.substring(0, dataSourceName.length() - DataSourceStuff.DATA_SOURCE_FILE_SUFFIX.length());
+                }
+                String details = getReferencesDetails("Delete.dataSource.references", ProcessDependencies.findDataSourceReferences(dataSourceName));
+                if (Dialogs.confirm(Localization.getString("Delete.dataSource.message", resource.getName()), details)) {
                     if (resource instanceof IFile) {
                         resource.delete(true, null);
                     }
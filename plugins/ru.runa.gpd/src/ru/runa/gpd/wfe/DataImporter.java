@@ -21,7 +21,14 @@ public abstract class DataImporter {
     
     private static final String CACHE_FOLDER = "dataImporterCache";
     private static final Set<DataImporter> IMPORTERS = Sets.newHashSet();
-    
+
+    protected DataImporter() {
+        // in-memory caches may be filled from cache files without synchronization
+        synchronized (IMPORTERS) {
+            IMPORTERS.add(this);
+        }
+    }
+
     protected abstract IConnector getConnector();
 
     public boolean isConfigured() {
@@ -33,11 +40,15 @@ public abstract class DataImporter {
     }
 
     protected File getCacheFile() {
+        return getCacheFile("xml");
+    }
+
+    protected File getCacheFile(String extension) {
         File cacheFolder = new File(Activator.getPreferencesFolder() + File.separator + CACHE_FOLDER);
         if (!cacheFolder.exists()) {
             cacheFolder.mkdirs();
         }
-        return new File(cacheFolder, getClass().getSimpleName() + ".xml");
+        return new File(cacheFolder, getClass().getSimpleName() + "." + extension);
     }
     
     protected abstract void clearInMemoryCache();
@@ -58,7 +69,6 @@ public abstract class DataImporter {
     }
 
     public final void synchronize() {
-        IMPORTERS.add(this);
         Shell shell = Display.getCurrent() != null ? Display.getCurrent().getActiveShell() : null;
         final ProgressMonitorDialog monitorDialog = new ProgressMonitorDialog(shell);
         monitorDialog.setCancelable(true);
@@ -95,8 +105,10 @@ public abstract class DataImporter {
     }
 
     public static void clearCache() {
-        for (Iterator<DataImporter> i = IMPORTERS.iterator(); i.hasNext();) {
-            i.next().clearInMemoryCache();
+        synchronized (IMPORTERS) {
+            for (Iterator<DataImporter> i = IMPORTERS.iterator(); i.hasNext();) {
+                i.next().clearInMemoryCache();
+            }
         }
         File cacheFolder = new File(Activator.getPreferencesFolder() + File.separator + CACHE_FOLDER);
         String[] cacheContent = cacheFolder.list();
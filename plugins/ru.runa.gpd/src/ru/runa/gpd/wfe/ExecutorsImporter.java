@@ -1,52 +1,143 @@
 package ru.runa.gpd.wfe;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.OutputStream;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 import org.dom4j.Document;
 import org.dom4j.Element;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import com.google.common.collect.ImmutableList;
 
 import ru.runa.gpd.util.XmlUtil;
 
+/**
+ * Executors are kept in memory after the first load from the cache file and are replaced only on {@link #synchronize()}. Remote data is
+ * loaded aside and swapped in at once, so a failed synchronization does not leave partially loaded executors.
+ */
 public abstract class ExecutorsImporter extends DataImporter {
-    protected Map<String, Boolean> executors = new TreeMap<String, Boolean>();
+    private static final String CACHE_FILE_EXTENSION = "bin";
+    private Map<String, Boolean> executors = new TreeMap<String, Boolean>();
+    private boolean cacheLoaded;
+    private List<String> actorNames;
+    private List<String> groupNames;
+    private List<String> executorNames;
 
     @Override
-    protected void clearInMemoryCache() {
-        executors.clear();
+    protected synchronized void clearInMemoryCache() {
+        executors = new TreeMap<String, Boolean>();
+        cacheLoaded = false;
+        actorNames = null;
+        groupNames = null;
+        executorNames = null;
     }
 
+    /**
+     * Loads executors to the given map, group flag as value.
+     */
+    protected abstract void loadRemoteExecutors(Map<String, Boolean> executors, IProgressMonitor monitor) throws Exception;
+
     @Override
-    protected void saveCachedData() throws Exception {
-        Document document = XmlUtil.createDocument("executors");
-        for (String name : executors.keySet()) {
-            Element element = document.getRootElement().addElement("executor");
-            element.addAttribute("name", name);
-            element.addAttribute("group", String.valueOf(executors.get(name)));
+    protected final void loadRemoteData(IProgressMonitor monitor) throws Exception {
+        Map<String, Boolean> loaded = new TreeMap<String, Boolean>();
+        loadRemoteExecutors(loaded, monitor);
+        synchronized (this) {
+            executors = loaded;
+            cacheLoaded = true;
+            actorNames = null;
+            groupNames = null;
+            executorNames = null;
         }
-        try (OutputStream os = new FileOutputStream(getCacheFile())) {
-            XmlUtil.writeXml(document, os);
+    }
+
+    @Override
+    protected synchronized void saveCachedData() throws Exception {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getCacheFile(CACHE_FILE_EXTENSION))))) {
+            out.writeInt(executors.size());
+            for (Map.Entry<String, Boolean> entry : executors.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeBoolean(entry.getValue());
+            }
         }
+        cacheLoaded = true;
     }
 
     @Override
-    public Map<String, Boolean> loadCachedData() throws Exception {
-        Map<String, Boolean> result = new TreeMap<String, Boolean>();
-        File cacheFile = getCacheFile();
+    public synchronized Map<String, Boolean> loadCachedData() throws Exception {
+        if (!cacheLoaded) {
+            File cacheFile = getCacheFile(CACHE_FILE_EXTENSION);
+            if (cacheFile.exists()) {
+                readCacheFile(cacheFile);
+            } else {
+                readLegacyCacheFile(getCacheFile());
+            }
+            cacheLoaded = true;
+        }
+        return Collections.unmodifiableMap(executors);
+    }
+
+    /**
+     * @return sorted names of cached executors of requested kinds
+     */
+    public synchronized List<String> getExecutorNames(boolean includeActors, boolean includeGroups) throws Exception {
+        loadCachedData();
+        if (executorNames == null) {
+            ImmutableList.Builder<String> actors = ImmutableList.builder();
+            ImmutableList.Builder<String> groups = ImmutableList.builder();
+            for (Map.Entry<String, Boolean> entry : executors.entrySet()) {
+                if (entry.getValue()) {
+                    groups.add(entry.getKey());
+                } else {
+                    actors.add(entry.getKey());
+                }
+            }
+            actorNames = actors.build();
+            groupNames = groups.build();
+            executorNames = ImmutableList.copyOf(executors.keySet());
+        }
+        if (includeActors && includeGroups) {
+            return executorNames;
+        }
+        if (includeActors) {
+            return actorNames;
+        }
+        if (includeGroups) {
+            return groupNames;
+        }
+        return ImmutableList.of();
+    }
+
+    private void readCacheFile(File cacheFile) throws Exception {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                executors.put(name, in.readBoolean());
+            }
+        }
+    }
+
+    private void readLegacyCacheFile(File cacheFile) throws Exception {
         if (cacheFile.exists()) {
-            Document document = XmlUtil.parseWithoutValidation(new FileInputStream(cacheFile));
-            List<Element> nodeList = document.getRootElement().elements("executor");
-            for (Element element : nodeList) {
-                String name = element.attributeValue("name");
-                Boolean isGroup = Boolean.parseBoolean(element.attributeValue("group"));
-                result.put(name, isGroup);
+            try (InputStream in = new FileInputStream(cacheFile)) {
+                Document document = XmlUtil.parseWithoutValidation(in);
+                List<Element> nodeList = document.getRootElement().elements("executor");
+                for (Element element : nodeList) {
+                    String name = element.attributeValue("name");
+                    Boolean isGroup = Boolean.parseBoolean(element.attributeValue("group"));
+                    executors.put(name, isGroup);
+                }
             }
         }
-        return result;
     }
 }
@@ -1,5 +1,7 @@
 package ru.runa.gpd.wfe;
 
+import java.util.Map;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 
 public class WFEServerExecutorsImporter extends ExecutorsImporter {
@@ -18,7 +20,7 @@ public class WFEServerExecutorsImporter extends ExecutorsImporter {
     }
 
     @Override
-    protected void loadRemoteData(IProgressMonitor monitor) throws Exception {
+    protected void loadRemoteExecutors(Map<String, Boolean> executors, IProgressMonitor monitor) throws Exception {
         executors.putAll(WFEServerConnector.getInstance().getExecutors());
         monitor.worked(100);
     }
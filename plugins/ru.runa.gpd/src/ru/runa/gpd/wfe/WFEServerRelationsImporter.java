@@ -3,8 +3,10 @@ package ru.runa.gpd.wfe;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.dom4j.Document;
@@ -14,7 +16,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import ru.runa.gpd.util.XmlUtil;
 
 public class WFEServerRelationsImporter extends DataImporter {
-    private final List<String> relations = new ArrayList<String>();
+    private List<String> relations = new ArrayList<String>();
+    private boolean cacheLoaded;
     private static WFEServerRelationsImporter instance;
 
     @Override
@@ -30,12 +33,13 @@ public class WFEServerRelationsImporter extends DataImporter {
     }
 
     @Override
-    protected void clearInMemoryCache() {
-        relations.clear();
+    protected synchronized void clearInMemoryCache() {
+        relations = new ArrayList<String>();
+        cacheLoaded = false;
     }
 
     @Override
-    protected void saveCachedData() throws Exception {
+    protected synchronized void saveCachedData() throws Exception {
         Document document = XmlUtil.createDocument("data");
         for (String name : relations) {
             Element element = document.getRootElement().addElement("relation");
@@ -44,26 +48,34 @@ public class WFEServerRelationsImporter extends DataImporter {
         try (OutputStream os = new FileOutputStream(getCacheFile())) {
             XmlUtil.writeXml(document, os);
         }
+        cacheLoaded = true;
     }
 
     @Override
-    public List<String> loadCachedData() throws Exception {
-        List<String> result = new ArrayList<String>();
-        File cacheFile = getCacheFile();
-        if (cacheFile.exists()) {
-            Document document = XmlUtil.parseWithoutValidation(new FileInputStream(cacheFile));
-            List<Element> nodeList = document.getRootElement().elements("relation");
-            for (Element element : nodeList) {
-                String name = element.attributeValue("name");
-                result.add(name);
+    public synchronized List<String> loadCachedData() throws Exception {
+        if (!cacheLoaded) {
+            File cacheFile = getCacheFile();
+            if (cacheFile.exists()) {
+                try (InputStream is = new FileInputStream(cacheFile)) {
+                    Document document = XmlUtil.parseWithoutValidation(is);
+                    List<Element> nodeList = document.getRootElement().elements("relation");
+                    for (Element element : nodeList) {
+                        relations.add(element.attributeValue("name"));
+                    }
+                }
             }
+            cacheLoaded = true;
         }
-        return result;
+        return Collections.unmodifiableList(relations);
     }
 
     @Override
     protected void loadRemoteData(IProgressMonitor monitor) throws Exception {
-        relations.addAll(getConnector().getRelationNames());
+        List<String> loaded = new ArrayList<String>(getConnector().getRelationNames());
+        synchronized (this) {
+            relations = loaded;
+            cacheLoaded = true;
+        }
         monitor.worked(100);
     }
 }